@@ -0,0 +1,70 @@
+package org.example.pfabackend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Idempotent backfills of the derived colocation columns added after the first release,
+ * run once at startup before the in-memory indexes are built.
+ */
+@Slf4j
+@Component
+public class ColocationBackfillRunner implements ApplicationRunner {
+
+    // Ancienne collection de valeurs des colocataires, remplacée par colocation_membership
+    private static final String LEGACY_ASSIGNED_USERS = "colocation_assigned_users";
+
+    private final ColocationRepository colocationRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public ColocationBackfillRunner(ColocationRepository colocationRepository, JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager) {
+        this.colocationRepository = colocationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        // Index B-tree inutilisable par les filtres sur le masque (amenities & :mask), retiré des bases existantes
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_colocation_amenities");
+        int amenities = colocationRepository.backfillAmenities();
+        if (amenities > 0) {
+            log.info("Amenity bitmask backfilled for {} colocations", amenities);
+        }
+        int ratings = colocationRepository.backfillRatings();
+        if (ratings > 0) {
+            log.info("Rating aggregates backfilled for {} colocations", ratings);
+        }
+        migrateAssignedUsers();
+        int roommates = colocationRepository.backfillCurrentRoommates();
+        if (roommates > 0) {
+            log.info("Roommate counter reconciled with the memberships for {} colocations", roommates);
+        }
+    }
+
+    // Copie unique : la table d'origine (et sa clé étrangère vers colocation) est supprimée dans la même transaction
+    private void migrateAssignedUsers() {
+        Integer legacyTables = jdbcTemplate.queryForObject("SELECT count(*) FROM information_schema.tables " +
+                "WHERE lower(table_name) = ? AND lower(table_schema) = lower(current_schema)", Integer.class, LEGACY_ASSIGNED_USERS);
+        if (legacyTables == null || legacyTables == 0) {
+            return;
+        }
+        Integer memberships = transactionTemplate.execute(status -> {
+            int copied = jdbcTemplate.update("INSERT INTO colocation_membership (colocation_id, user_id, role, joined_at) " +
+                    "SELECT DISTINCT a.colocation_id, a.user_id, 'ROOMMATE', CURRENT_TIMESTAMP FROM " + LEGACY_ASSIGNED_USERS + " a " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM colocation_membership m " +
+                    "WHERE m.user_id = a.user_id AND m.colocation_id = a.colocation_id)");
+            jdbcTemplate.execute("DROP TABLE " + LEGACY_ASSIGNED_USERS);
+            return copied;
+        });
+        log.info("{} assigned users migrated from {} to colocation_membership", memberships, LEGACY_ASSIGNED_USERS);
+    }
+}
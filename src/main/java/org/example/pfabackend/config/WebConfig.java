@@ -1,8 +1,13 @@
 package org.example.pfabackend.config;
 
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -10,8 +15,28 @@ import java.util.List;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
+    // JSON reste le format par défaut ; Smile et CBOR (même modèle Jackson, encodage binaire) sur demande via Accept
     @Override
     public void configureMessageConverters(List<HttpMessageConverter<?>> converters) {
         converters.add(new MappingJackson2HttpMessageConverter());
+        converters.add(new MappingJackson2SmileHttpMessageConverter());
+        converters.add(new MappingJackson2CborHttpMessageConverter());
+    }
+
+    // ETag calculé sur le corps des pages de liste (servies par le cache de recherche) : 304 si la page n'a pas changé.
+    // GET /api/colocations/{id} a son propre ETag fondé sur la version.
+    @Bean
+    public FilterRegistrationBean<ShallowEtagHeaderFilter> listingEtagFilter() {
+        FilterRegistrationBean<ShallowEtagHeaderFilter> registration = new FilterRegistrationBean<>(new ShallowEtagHeaderFilter());
+        registration.addUrlPatterns(
+                "/api/colocations",
+                "/api/colocations/feed",
+                "/api/colocations/filter",
+                "/api/colocations/non-published",
+                "/api/colocations/non-published/feed",
+                "/api/colocations/assigned",
+                "/api/colocations/assigned/feed",
+                "/api/colocations/my-colocations");
+        return registration;
     }
 }
@@ -0,0 +1,245 @@
+package org.example.pfabackend.controllers;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.pfabackend.dto.BulkModerationDTO;
+import org.example.pfabackend.dto.BulkModerationResultDTO;
+import org.example.pfabackend.dto.ColocationDTO;
+import org.example.pfabackend.services.ColocationImportService;
+import org.example.pfabackend.services.ColocationService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/admin/colocations")
+public class AdminColocationController {
+
+    public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final ColocationService colocationService;
+    private final ColocationImportService colocationImportService;
+    private final ObjectMapper objectMapper;
+    private final KeycloakRoleService keycloakRoleService;
+
+    // Propre à l'export : les autres requêtes asynchrones gardent le délai par défaut du conteneur
+    @Value("${colocation.export.timeout:30m}")
+    private Duration exportTimeout;
+
+    public AdminColocationController(ColocationService colocationService, ColocationImportService colocationImportService,
+                                     ObjectMapper objectMapper, KeycloakRoleService keycloakRoleService) {
+        this.colocationService = colocationService;
+        this.colocationImportService = colocationImportService;
+        this.objectMapper = objectMapper;
+        this.keycloakRoleService = keycloakRoleService;
+    }
+
+    /**
+     * Rebuild the search index (trigram index or tsvector column) for all existing colocations
+     */
+    @PostMapping("/search/reindex")
+    public ResponseEntity<Map<String, Object>> reindexSearch() {
+        int indexed = colocationService.reindexSearch();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.OK.value());
+        response.put("message", "Search index rebuilt successfully.");
+        response.put("indexed", indexed);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Hit, miss, eviction and invalidation counters of the listing search cache
+     */
+    @GetMapping("/search/cache")
+    public ResponseEntity<Map<String, Object>> getSearchCacheStats() {
+        return ResponseEntity.ok(colocationService.getSearchCacheStats());
+    }
+
+    /**
+     * Counters of the Hibernate second-level cache (colocations, images, reviews and their collections)
+     */
+    @GetMapping("/entity-cache")
+    public ResponseEntity<Map<String, Object>> getEntityCacheStats() {
+        return ResponseEntity.ok(colocationService.getEntityCacheStats());
+    }
+
+    /**
+     * Counters of the per-user cache of owned and assigned colocations (visibility checks)
+     */
+    @GetMapping("/membership-cache")
+    public ResponseEntity<Map<String, Object>> getMembershipCacheStats() {
+        return ResponseEntity.ok(colocationService.getMembershipCacheStats());
+    }
+
+    /**
+     * Whole catalogue as newline-delimited JSON (one colocation per line, id order), written while it is read
+     * from the database and gzip-compressed on the fly when the client accepts it. Runs asynchronously with its
+     * own timeout ({@code colocation.export.timeout})
+     */
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportColocations(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        // Pas de flush après chaque ligne : le générateur et le flux gzip remplissent leurs tampons
+        ObjectWriter writer = objectMapper.writerFor(ColocationDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        response.setContentType(NDJSON.toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename("colocations.ndjson").build().toString());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            OutputStream out = response.getOutputStream();
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, 8192) : null;
+            OutputStream target = compressed != null ? compressed : out;
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(target)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                // Une ligne par colocation : pas de séparateur (espace) entre les valeurs racines
+                generator.setRootValueSeparator(null);
+                colocationService.exportColocations(colocation -> {
+                    try {
+                        writer.writeValue(generator, colocation);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            if (compressed != null) {
+                compressed.finish();
+            }
+            out.flush();
+            return null;
+        });
+    }
+
+    /**
+     * Bulk import of a JSON array of colocations, validated row by row and written in JDBC batches. The listings
+     * are published under the given publisher (the caller by default); the report gives the id or the errors
+     * of every row
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> importJson(InputStream body,
+                                        @RequestParam(required = false) String idOfPublisher,
+                                        @RequestParam(required = false) String nameOfPublisher,
+                                        @AuthenticationPrincipal Jwt jwt) throws IOException {
+        return ResponseEntity.ok(colocationImportService.importJson(body, publisherId(idOfPublisher, jwt), publisherName(nameOfPublisher, jwt)));
+    }
+
+    /**
+     * Same import from a CSV stream: header row of {@code CreateColocationDTO} property names, list cells
+     * separated by '|'
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<?> importCsv(InputStream body,
+                                       @RequestParam(required = false) String idOfPublisher,
+                                       @RequestParam(required = false) String nameOfPublisher,
+                                       @AuthenticationPrincipal Jwt jwt) throws IOException {
+        try {
+            return ResponseEntity.ok(colocationImportService.importCsv(body, publisherId(idOfPublisher, jwt), publisherName(nameOfPublisher, jwt)));
+        } catch (IllegalArgumentException ex) {
+            // En-tête CSV absent ou colonne inconnue
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Publish or unpublish a list of colocations ({"ids": [...], "isPublished": true}) with one UPDATE. On publish,
+     * the 'colocataire' role is granted once to each distinct publisher who does not hold it yet
+     */
+    @PatchMapping("/bulk/publish")
+    public ResponseEntity<?> bulkUpdateIsPublished(@RequestBody BulkModerationDTO request) {
+        if (request.isPublished() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing required field 'isPublished' in request body."));
+        }
+        try {
+            BulkModerationResultDTO result = colocationService.bulkUpdateIsPublished(request.ids(), request.isPublished());
+            if (request.isPublished()) {
+                Set<String> failed = keycloakRoleService.assignRoleToUsers(result.publisherIds(), "colocataire");
+                if (!failed.isEmpty()) {
+                    // Les colocations restent publiées : seules les assignations sont à relancer
+                    return ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of(
+                            "error", "Failed to assign 'colocataire' role.",
+                            "publishers", failed,
+                            "result", result));
+                }
+            }
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Archive or unarchive a list of colocations ({"ids": [...], "isArchived": true}) with one UPDATE
+     */
+    @PatchMapping("/bulk/archive")
+    public ResponseEntity<?> bulkUpdateIsArchived(@RequestBody BulkModerationDTO request) {
+        if (request.isArchived() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing required field 'isArchived' in request body."));
+        }
+        try {
+            return ResponseEntity.ok(colocationService.bulkUpdateIsArchived(request.ids(), request.isArchived()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        }
+    }
+
+    /**
+     * Delete a list of colocations ({"ids": [...]}) with their images, reviews and collections: one DELETE per table
+     */
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<?> bulkDeleteColocations(@RequestBody BulkModerationDTO request) {
+        try {
+            return ResponseEntity.ok(colocationService.bulkDeleteColocations(request.ids()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("error", ex.getMessage()));
+        } catch (DataIntegrityViolationException ex) {
+            // Dépenses ou messages encore rattachés : rien n'est supprimé
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "Some colocations are still referenced (expenses, messages); nothing was deleted."));
+        }
+    }
+
+    private static String publisherId(String idOfPublisher, Jwt jwt) {
+        return idOfPublisher != null ? idOfPublisher : jwt.getClaimAsString("sub");
+    }
+
+    private static String publisherName(String nameOfPublisher, Jwt jwt) {
+        return nameOfPublisher != null ? nameOfPublisher : jwt.getClaimAsString("preferred_username");
+    }
+}
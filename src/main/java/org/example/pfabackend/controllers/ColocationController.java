@@ -2,15 +2,24 @@ package org.example.pfabackend.controllers;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import org.example.pfabackend.dto.ColocationFacetsDTO;
+import org.example.pfabackend.dto.ColocationFilter;
 import org.example.pfabackend.dto.CreateColocationDTO;
+import org.example.pfabackend.dto.CursorSliceDTO;
 import org.example.pfabackend.dto.ErrorDTO;
+import org.example.pfabackend.dto.SuggestionDTO;
 import org.example.pfabackend.dto.ColocationDTO;
+import org.example.pfabackend.dto.ColocationSummaryDTO;
+import org.example.pfabackend.dto.ColocationVersion;
 import org.example.pfabackend.dto.UpdateColocationDTO;
 import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.enums.Amenity;
+import org.example.pfabackend.enums.ColocationField;
 import org.example.pfabackend.services.ColocationService;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,9 +28,12 @@ import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDate;
 import java.util.*;
+import java.util.stream.Collectors;
 
 @Validated
 @RestController
@@ -36,24 +48,130 @@ public class ColocationController {
         this.keycloakRoleService = keycloakRoleService;
     }
 
-    // GET paginated + searchable colocations
+    // GET paginated + searchable colocations (sort=relevance ranks the search results, newest first otherwise)
     @GetMapping
-    public ResponseEntity<Page<ColocationDTO>> getAllColocations(
+    public ResponseEntity<Page<ColocationSummaryDTO>> getAllColocations(
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String sort,
             @AuthenticationPrincipal Jwt jwt) { // Inject Jwt token here
 
         // Pass the Jwt token to the service to check the user's role
-        Page<ColocationDTO> result = colocationService.getAllColocations(search, page, size, jwt);
+        boolean byRelevance = "relevance".equalsIgnoreCase(sort);
+        Page<ColocationSummaryDTO> result = colocationService.getAllColocations(search, page, size, byRelevance, jwt);
         return ResponseEntity.ok(result);
     }
 
+    // GET autocomplete of cities, tags and listing names, e.g. ?q=par
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionDTO>> suggest(
+            @RequestParam(defaultValue = "") String q,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        return ResponseEntity.ok(colocationService.suggest(q, limit));
+    }
+
+    // GET public colocations, keyset-paginated: ?after=<nextCursor of the previous slice>&size=n
+    @GetMapping("/feed")
+    public ResponseEntity<CursorSliceDTO<ColocationSummaryDTO>> getPublicFeed(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(colocationService.getPublicFeed(after, size));
+    }
+
+    // GET public colocations matching the structured filter, e.g. ?amenities=wifi,parking&maxPrice=600
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterColocations(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String priceRange,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer rooms,
+            @RequestParam(required = false) String genderPreference,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate availableFrom,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        try {
+            ColocationFilter filter = new ColocationFilter(city, priceRange, minPrice, maxPrice, rooms,
+                    genderPreference, parseAmenities(amenities), availableFrom);
+
+            Page<ColocationSummaryDTO> result = colocationService.filterColocations(filter, page, size);
+            return ResponseEntity.ok(result);
+        } catch (IllegalArgumentException ex) {
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    // GET facet counts (city, price range, rooms, gender preference, amenities) for the current filter
+    @GetMapping("/facets")
+    public ResponseEntity<?> getFacets(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String priceRange,
+            @RequestParam(required = false) Double minPrice,
+            @RequestParam(required = false) Double maxPrice,
+            @RequestParam(required = false) Integer rooms,
+            @RequestParam(required = false) String genderPreference,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate availableFrom) {
+
+        try {
+            ColocationFilter filter = new ColocationFilter(city, priceRange, minPrice, maxPrice, rooms,
+                    genderPreference, parseAmenities(amenities), availableFrom);
+
+            ColocationFacetsDTO facets = colocationService.getFacets(filter);
+            return ResponseEntity.ok(facets);
+        } catch (IllegalArgumentException ex) {
+            return buildErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+    }
+
+    private static Set<Amenity> parseAmenities(List<String> amenities) {
+        return amenities == null ? Set.of() : amenities.stream()
+                .map(Amenity::fromParam)
+                .collect(Collectors.toSet());
+    }
+
     // GET colocation by ID
     @GetMapping("/{id}")
-    public ResponseEntity<Map<String, Object>> getColocationById(@PathVariable Long id  ,@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<Map<String, Object>> getColocationById(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt,
+                                                                 @RequestParam(required = false) String fields,
+                                                                 WebRequest request) {
+        // ?fields=id,name,price : seules ces colonnes (et collections) sont lues
+        Set<ColocationField> requested;
+        try {
+            requested = fields != null ? ColocationField.fromParam(fields) : null;
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(createErrorResponse(ex.getMessage()));
+        }
+
+        // If-None-Match : 304 sur la seule version, sans charger la colocation ni construire le DTO
+        Optional<ColocationVersion> version = colocationService.getColocationVersion(id, jwt);
+        if (version.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Colocation with ID " + id + " not found"));
+        }
+        String etag = etag(version.get().getVersion(), version.get().getUpdatedAt(), requested);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        if (requested != null) {
+            return colocationService.getColocationFields(id, requested, jwt)
+                    .map(colocation -> ResponseEntity.ok()
+                            .eTag(etag)
+                            .body(createResponse("Colocation found successfully", colocation)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(createErrorResponse("Colocation with ID " + id + " not found")));
+        }
+
         return colocationService.getColocationById(id,jwt)
-                .map(colocation -> ResponseEntity.ok(createResponse("Colocation found successfully", colocation)))
+                .map(colocation -> ResponseEntity.ok()
+                        .eTag(etag(colocation.version(), colocation.updatedAt()))
+                        .body(createResponse("Colocation found successfully", colocation)))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
                         .body(createErrorResponse("Colocation with ID " + id + " not found")));
     }
@@ -86,7 +204,7 @@ public class ColocationController {
                 dto.hasBalcony(),
                 dto.hasPrivateBathroom(),
                 dto.maxRoommates(),
-                dto.currentRoommates(),
+                null, // déduit des colocataires affectés
                 dto.status(),
                 dto.rules(),
                 dto.tags(),
@@ -98,7 +216,8 @@ public class ColocationController {
                 dto.updatedAt(),
                 dto.isArchived(),
                 dto.isPublished(),
-                dto.assignedUserIds()
+                dto.assignedUserIds(),
+                null
         );
 
         ColocationDTO created = colocationService.saveColocation(fullDTO);
@@ -111,15 +230,28 @@ public class ColocationController {
     public ResponseEntity<Map<String, Object>> updateColocation(
             @PathVariable Long id,
             @RequestBody UpdateColocationDTO updateDTO,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @AuthenticationPrincipal Jwt jwt) {
 
-        return colocationService.getColocationById(id, jwt)
-                .map(existing -> {
-                    ColocationDTO updated = colocationService.updateColocation(id, updateDTO);
-                    return ResponseEntity.ok(createResponse("Colocation updated successfully", updated));
-                })
-                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(createErrorResponse("Colocation with ID " + id + " not found")));
+        Optional<ColocationVersion> current = colocationService.getColocationVersion(id, jwt);
+        if (current.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(createErrorResponse("Colocation with ID " + id + " not found"));
+        }
+        if (ifMatch != null && !matches(ifMatch, etag(current.get().getVersion(), current.get().getUpdatedAt()))) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(createErrorResponse("Colocation with ID " + id + " has been modified, reload it and retry"));
+        }
+
+        try {
+            ColocationDTO updated = colocationService.updateColocation(id, updateDTO, current.get().getVersion());
+            return ResponseEntity.ok()
+                    .eTag(etag(updated.version(), updated.updatedAt()))
+                    .body(createResponse("Colocation updated successfully", updated));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                    .body(createErrorResponse("Colocation with ID " + id + " has been modified, reload it and retry"));
+        }
     }
 
 
@@ -180,9 +312,7 @@ public class ColocationController {
             // Si publié, assigner le rôle "colocataire"
             if (isPublished) {
                 String userId = updatedColocation.getIdOfPublisher(); // doit être l'UUID Keycloak du user
-                String token = "Bearer " + jwt.getTokenValue();
-
-                boolean assigned = keycloakRoleService.assignRoleToUser(userId, "colocataire", token);
+                boolean assigned = keycloakRoleService.assignRoleToUser(userId, "colocataire");
 
                 if (!assigned) {
                     return buildErrorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to assign 'colocataire' role.");
@@ -267,6 +397,30 @@ public class ColocationController {
         return Map.of("message", message, "data", data != null ? data : "No data available");
     }
 
+    // Strong ETag of a colocation: its version, plus the update date
+    private static String etag(Long version, LocalDate updatedAt) {
+        return "\"" + version + "-" + updatedAt + "\"";
+    }
+
+    // Sparse representation (?fields=): its own ETag per field set
+    private static String etag(Long version, LocalDate updatedAt, Set<ColocationField> fields) {
+        if (fields == null) {
+            return etag(version, updatedAt);
+        }
+        return "\"" + version + "-" + updatedAt + ";" + fields.stream().map(ColocationField::param).collect(Collectors.joining(",")) + "\"";
+    }
+
+    // If-Match: "*" or a list of ETags (weak ones never match)
+    private static boolean matches(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     // Helper: error response
     private Map<String, Object> createErrorResponse(String errorMessage) {
         return Map.of("error", new ErrorDTO(errorMessage));
@@ -283,7 +437,7 @@ public class ColocationController {
 
     // Get non-published colocations for admin
     @GetMapping("/non-published")
-    public ResponseEntity<Page<ColocationDTO>> getNonPublishedColocations(
+    public ResponseEntity<Page<ColocationSummaryDTO>> getNonPublishedColocations(
             @RequestParam(required = false) String search,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
@@ -291,9 +445,18 @@ public class ColocationController {
 
 
         // Retrieve non-published colocations
-        Page<ColocationDTO> result = colocationService.getNonPublishedColocations(search,page, size);
+        Page<ColocationSummaryDTO> result = colocationService.getNonPublishedColocations(search,page, size);
         return ResponseEntity.ok(result);
     }
+
+    // Keyset-paginated variant of /non-published (no search)
+    @GetMapping("/non-published/feed")
+    public ResponseEntity<CursorSliceDTO<ColocationSummaryDTO>> getNonPublishedFeed(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        return ResponseEntity.ok(colocationService.getNonPublishedFeed(after, size));
+    }
 /*
     @PutMapping("/{id}/assign/{userIdToAssign}")
     public ResponseEntity<?> assignUserToColocation(
@@ -354,15 +517,14 @@ public class ColocationController {
     }
 
     @GetMapping("/my-colocations")
-    public ResponseEntity<Page<Colocation>> getMyColocations(
+    public ResponseEntity<Page<ColocationSummaryDTO>> getMyColocations(
             @AuthenticationPrincipal Jwt jwt,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String keyword) {
 
         String currentUserId = jwt.getClaimAsString("sub");
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Colocation> colocations = colocationService.getOwnColocations(currentUserId, keyword, pageable);
+        Page<ColocationSummaryDTO> colocations = colocationService.getOwnColocations(currentUserId, keyword, page, size);
 
         return ResponseEntity.ok(colocations);
     }
@@ -382,11 +544,22 @@ public class ColocationController {
             List<Long> colocationIds = colocationService.getAssignedColocationIds(userId);
             return ResponseEntity.ok(colocationIds);
         } else {
-            Page<ColocationDTO> colocations = colocationService.getAssignedColocations(userId, page, size);
+            Page<ColocationSummaryDTO> colocations = colocationService.getAssignedColocations(userId, page, size);
             return ResponseEntity.ok(colocations);
         }
     }
 
+    // Keyset-paginated variant of /assigned
+    @GetMapping("/assigned/feed")
+    public ResponseEntity<CursorSliceDTO<ColocationSummaryDTO>> getAssignedFeed(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "10") int size) {
+
+        String userId = jwt.getClaimAsString("sub");
+        return ResponseEntity.ok(colocationService.getAssignedFeed(userId, after, size));
+    }
+
     @PostMapping(
             value = "/with-images",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
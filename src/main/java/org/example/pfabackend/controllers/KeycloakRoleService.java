@@ -1,19 +1,25 @@
 package org.example.pfabackend.controllers;
 
 import org.example.pfabackend.services.RoleDefinitionProvider;
+import org.example.pfabackend.services.implementations.KeycloakTokenManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 @Service
 public class KeycloakRoleService {
 
     private final RestTemplate restTemplate;
     private final RoleDefinitionProvider roleProvider;
+    private final KeycloakTokenManager tokenManager;
 
 
     private String clientId = "71919931-d9ee-4522-b316-f8152da7785b";
@@ -21,14 +27,17 @@ public class KeycloakRoleService {
 
     private String realm= "PFARealm";
 
+    private static final int ROLE_MEMBERS_PAGE_SIZE = 500;
+
     private static final Logger logger = LoggerFactory.getLogger(KeycloakRoleService.class);
 
-    public KeycloakRoleService(RestTemplate restTemplate, RoleDefinitionProvider roleProvider) {
+    public KeycloakRoleService(RestTemplate restTemplate, RoleDefinitionProvider roleProvider, KeycloakTokenManager tokenManager) {
         this.restTemplate = restTemplate;
         this.roleProvider = roleProvider;
+        this.tokenManager = tokenManager;
     }
 
-    public boolean assignRoleToUser(String userId, String roleName, String authToken) {
+    public boolean assignRoleToUser(String userId, String roleName) {
         Map<String, Object> role = roleProvider.getRole(roleName);
         if (role == null) return false;
 
@@ -37,13 +46,13 @@ public class KeycloakRoleService {
                 realm, userId, clientId
         );
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", authToken);
-
-        HttpEntity<List<Map<String, Object>>> requestEntity = new HttpEntity<>(List.of(role), headers);
-
         try {
+            // En-têtes complets avant la construction de la requête (HttpEntity peut en garder une copie)
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setBearerAuth(tokenManager.getAccessToken());
+            HttpEntity<List<Map<String, Object>>> requestEntity = new HttpEntity<>(List.of(role), headers);
+
             ResponseEntity<Void> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, Void.class);
             return response.getStatusCode() == HttpStatus.NO_CONTENT;
         } catch (Exception ex) {
@@ -51,4 +60,69 @@ public class KeycloakRoleService {
             return false;
         }
     }
+
+    /**
+     * Grants the client role to several users: each user appears once, and the users who already hold the role
+     * (read in pages from the role's member list) are skipped, so a moderation batch costs one request per
+     * publisher that actually lacks the role. Returns the users the role could not be granted to.
+     */
+    public Set<String> assignRoleToUsers(Collection<String> userIds, String roleName) {
+        Set<String> pending = new LinkedHashSet<>(userIds);
+        Map<String, Object> role = roleProvider.getRole(roleName);
+        if (pending.isEmpty() || role == null) {
+            return pending;
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        try {
+            headers.setBearerAuth(tokenManager.getAccessToken());
+        } catch (IllegalStateException ex) {
+            logger.error("Jeton du compte de service indisponible : {}", ex.getMessage());
+            return pending;
+        }
+
+        try {
+            removeRoleMembers(pending, String.valueOf(role.getOrDefault("name", roleName)), headers);
+        } catch (Exception ex) {
+            // Liste des membres indisponible : l'assignation est idempotente, on l'envoie à tous
+            logger.warn("Membres du rôle {} illisibles : {}", roleName, ex.getMessage());
+        }
+
+        Set<String> failed = new LinkedHashSet<>();
+        HttpEntity<List<Map<String, Object>>> requestEntity = new HttpEntity<>(List.of(role), headers);
+        for (String userId : pending) {
+            String url = String.format(
+                    "http://localhost:8080/admin/realms/%s/users/%s/role-mappings/clients/%s",
+                    realm, userId, clientId
+            );
+            try {
+                ResponseEntity<Void> response = restTemplate.exchange(url, HttpMethod.POST, requestEntity, Void.class);
+                if (response.getStatusCode() != HttpStatus.NO_CONTENT) {
+                    failed.add(userId);
+                }
+            } catch (Exception ex) {
+                logger.error("Erreur d’assignation du rôle {} à l'utilisateur {} : {}", roleName, userId, ex.getMessage());
+                failed.add(userId);
+            }
+        }
+        return failed;
+    }
+
+    private void removeRoleMembers(Set<String> userIds, String roleName, HttpHeaders headers) {
+        HttpEntity<Void> requestEntity = new HttpEntity<>(headers);
+        for (int first = 0; !userIds.isEmpty(); first += ROLE_MEMBERS_PAGE_SIZE) {
+            String url = String.format(
+                    "http://localhost:8080/admin/realms/%s/clients/%s/roles/%s/users?briefRepresentation=true&first=%d&max=%d",
+                    realm, clientId, roleName, first, ROLE_MEMBERS_PAGE_SIZE
+            );
+            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(url, HttpMethod.GET, requestEntity,
+                    new ParameterizedTypeReference<>() {});
+            List<Map<String, Object>> members = response.getBody() == null ? List.of() : response.getBody();
+            members.forEach(member -> userIds.remove(String.valueOf(member.get("id"))));
+            if (members.size() < ROLE_MEMBERS_PAGE_SIZE) {
+                return;
+            }
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package org.example.pfabackend.controllers;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.example.pfabackend.dto.SavedSearchDTO;
+import org.example.pfabackend.exceptions.ResourceNotFoundException;
+import org.example.pfabackend.services.SavedSearchService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saved searches of the current user: notified on /user/queue/notifications when a new colocation matches.
+ */
+@RestController
+@RequestMapping("/api/saved-searches")
+@RequiredArgsConstructor
+public class SavedSearchController {
+
+    private final SavedSearchService savedSearchService;
+
+    @GetMapping
+    public ResponseEntity<List<SavedSearchDTO>> getSavedSearches(@AuthenticationPrincipal Jwt jwt) {
+        return ResponseEntity.ok(savedSearchService.getSavedSearches(jwt.getClaimAsString("sub")));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> createSavedSearch(@Valid @RequestBody SavedSearchDTO dto, @AuthenticationPrincipal Jwt jwt) {
+        try {
+            SavedSearchDTO created = savedSearchService.createSavedSearch(jwt.getClaimAsString("sub"), dto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> deleteSavedSearch(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
+        try {
+            savedSearchService.deleteSavedSearch(jwt.getClaimAsString("sub"), id);
+            return ResponseEntity.noContent().build();
+        } catch (ResourceNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.example.pfabackend.controllers;
 
+import org.example.pfabackend.services.implementations.KeycloakTokenManager;
 import org.example.pfabackend.services.implementations.UserService;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
@@ -16,11 +17,13 @@ public class UserController {
 
     private final RestTemplate restTemplate;
 
-    public UserController(RestTemplate restTemplate, UserService userService) {
+    public UserController(RestTemplate restTemplate, UserService userService, KeycloakTokenManager tokenManager) {
         this.restTemplate = restTemplate;
         this.userService = userService;
+        this.tokenManager = tokenManager;
     }
     private final UserService userService;
+    private final KeycloakTokenManager tokenManager;
     /**
      * Endpoint to retrieve user information from Keycloak.
      */
@@ -277,18 +280,14 @@ public class UserController {
         // Return the response from Keycloak
         return ResponseEntity.ok(response.getBody());
     }
+    /**
+     * Endpoint to create a user in Keycloak (admins only, see SecurityConfig), with the service-account token.
+     */
     @PostMapping("/add")
-    public ResponseEntity<String> addUser(
-            @RequestBody Map<String, Object> simpleUserData,
-            @RequestHeader("Authorization") String authorizationHeader) {
-
-        if (authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
-            throw new IllegalArgumentException("Invalid or missing Authorization header");
-        }
-        String accessToken = authorizationHeader.replace("Bearer ", "");
+    public ResponseEntity<String> addUser(@RequestBody Map<String, Object> simpleUserData) {
 
         HttpHeaders headers = new HttpHeaders();
-        headers.setBearerAuth(accessToken);
+        headers.setBearerAuth(tokenManager.getAccessToken());
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         // Transformation du JSON simple vers le format attendu par Keycloak
@@ -0,0 +1,14 @@
+package org.example.pfabackend.dto;
+
+import java.util.List;
+
+/**
+ * Body of the bulk moderation endpoints: the colocations to moderate and, for publish and archive, the new
+ * value of the flag.
+ */
+public record BulkModerationDTO(
+        List<Long> ids,
+        Boolean isPublished,
+        Boolean isArchived
+) {
+}
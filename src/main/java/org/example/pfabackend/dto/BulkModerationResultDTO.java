@@ -0,0 +1,20 @@
+package org.example.pfabackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Result of a bulk moderation: how many distinct ids were requested, how many colocations actually changed
+ * (the others already had the requested value) and the ids that do not exist.
+ * {@code publisherIds} are the distinct publishers of the colocations that changed, for the role grants.
+ */
+public record BulkModerationResultDTO(
+        int requested,
+        int updated,
+        @JsonInclude(JsonInclude.Include.NON_EMPTY) List<Long> notFound,
+        @JsonIgnore Set<String> publisherIds
+) {
+}
@@ -67,7 +67,9 @@ public record ColocationDTO(
 
         Boolean isArchived,
         Boolean isPublished,
-        List<String> assignedUserIds
+        List<String> assignedUserIds,
+
+        Long version
 ) {
     public ColocationDTO {
         if (price != null && price < 0) {
@@ -0,0 +1,12 @@
+package org.example.pfabackend.dto;
+
+import java.util.Map;
+
+/**
+ * Number of public colocations per facet value, e.g. {@code facets.city.Paris = 12}.
+ */
+public record ColocationFacetsDTO(
+        long total,
+        Map<String, Map<String, Integer>> facets
+) {
+}
@@ -0,0 +1,27 @@
+package org.example.pfabackend.dto;
+
+import org.example.pfabackend.enums.Amenity;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Structured listing filter, every criterion is optional.
+ * <p>
+ * {@code availableFrom} is the move-in date: a colocation matches when it is available on or before it.
+ */
+public record ColocationFilter(
+        String city,
+        String priceRange,
+        Double minPrice,
+        Double maxPrice,
+        Integer rooms,
+        String genderPreference,
+        Set<Amenity> amenities,
+        LocalDate availableFrom
+) {
+    public boolean isEmpty() {
+        return city == null && priceRange == null && minPrice == null && maxPrice == null && rooms == null
+                && genderPreference == null && (amenities == null || amenities.isEmpty()) && availableFrom == null;
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.pfabackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * Result of a bulk import: one entry per input row (1-based, header excluded), with the id of the created
+ * colocation or the reasons it was rejected.
+ */
+public record ColocationImportReportDTO(
+        int received,
+        int imported,
+        int rejected,
+        List<Row> rows
+) {
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record Row(int row, Long id, List<String> errors) {
+    }
+}
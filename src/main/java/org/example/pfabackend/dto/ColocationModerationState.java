@@ -0,0 +1,15 @@
+package org.example.pfabackend.dto;
+
+/**
+ * Publisher and moderation flags of a colocation, read without loading the entity (bulk moderation).
+ */
+public interface ColocationModerationState {
+
+    Long getId();
+
+    String getIdOfPublisher();
+
+    Boolean getIsPublished();
+
+    Boolean getIsArchived();
+}
@@ -0,0 +1,50 @@
+package org.example.pfabackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.enums.Amenity;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a listing card shows, fetched with a JPQL constructor expression (see {@code ColocationRepository.SUMMARY})
+ * instead of loading the entity with its images, reviews, rules and tags. {@code GET /{id}} keeps the full
+ * {@link ColocationDTO}.
+ */
+public record ColocationSummaryDTO(
+        Long id,
+        String name,
+        String city,
+        Double price,
+        Integer numberOfRooms,
+        LocalDate availableFrom,
+        String coverImageUrl,
+        Double averageRating,
+        long reviewCount,
+        Set<Amenity> amenities,
+        boolean published,
+        boolean archived,
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        List<Map<String, Object>> assignedUsers // seulement pour /my-colocations
+) {
+
+    public ColocationSummaryDTO(Long id, String name, String city, Double price, Integer numberOfRooms,
+                                LocalDate availableFrom, String coverImageUrl, Long ratingSum, Long ratingCount,
+                                Integer amenities, Boolean published, Boolean archived) {
+        this(id, name, city, price, numberOfRooms, availableFrom, coverImageUrl,
+                Colocation.averageRating(ratingSum, ratingCount),
+                ratingCount != null ? ratingCount : 0L,
+                Amenity.fromMask(amenities != null ? amenities : 0),
+                Boolean.TRUE.equals(published),
+                Boolean.TRUE.equals(archived),
+                null);
+    }
+
+    public ColocationSummaryDTO withAssignedUsers(List<Map<String, Object>> assignedUsers) {
+        return new ColocationSummaryDTO(id, name, city, price, numberOfRooms, availableFrom, coverImageUrl,
+                averageRating, reviewCount, amenities, published, archived, assignedUsers);
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.pfabackend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Version and last update date of a colocation, read without loading the entity (ETag and If-Match checks).
+ */
+public interface ColocationVersion {
+
+    Long getVersion();
+
+    LocalDate getUpdatedAt();
+}
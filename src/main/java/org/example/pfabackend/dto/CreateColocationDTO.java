@@ -22,7 +22,6 @@ public record CreateColocationDTO(
         Boolean hasBalcony,
         Boolean hasPrivateBathroom,
         Integer maxRoommates,
-        Integer currentRoommates,
         String status,
         List<String> rules,
         List<String> tags,
@@ -0,0 +1,15 @@
+package org.example.pfabackend.dto;
+
+import java.util.List;
+
+/**
+ * One slice of a keyset-paginated feed: pass {@code nextCursor} as {@code after} to get the next one
+ * ({@code null} on the last slice). No total count is computed.
+ */
+public record CursorSliceDTO<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        Long nextCursor
+) {
+}
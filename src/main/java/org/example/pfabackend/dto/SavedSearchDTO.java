@@ -0,0 +1,19 @@
+package org.example.pfabackend.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record SavedSearchDTO(
+        Long id,
+        @Size(max = 100) String name,
+        @Size(max = 255) String keyword,
+        @Size(max = 100) String city,
+        @PositiveOrZero Double minPrice,
+        @PositiveOrZero Double maxPrice,
+        List<String> amenities,
+        LocalDateTime createdAt
+) {
+}
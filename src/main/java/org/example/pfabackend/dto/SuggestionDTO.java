@@ -0,0 +1,11 @@
+package org.example.pfabackend.dto;
+
+/**
+ * Autocomplete entry: a city, tag or listing name and the number of public colocations having it.
+ */
+public record SuggestionDTO(
+        String text,
+        String type,
+        int count
+) {
+}
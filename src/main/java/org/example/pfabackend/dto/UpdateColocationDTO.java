@@ -20,7 +20,6 @@ public record UpdateColocationDTO(
         Boolean hasBalcony,
         Boolean hasPrivateBathroom,
         Integer maxRoommates,
-        Integer currentRoommates,
         String status,
         List<String> rules,
         List<String> tags,
@@ -1,21 +1,32 @@
 package org.example.pfabackend.entities;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.example.pfabackend.enums.Amenity;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Entity
-@Table(name = "colocation")
+@Table(name = "colocation", indexes = @Index(name = "idx_colocation_publisher", columnList = "id_of_publisher"))
+// Cache de second niveau : régions et politiques d'éviction dans hibernate-cache.conf
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation")
 @Getter
 @Setter
 public class Colocation {
@@ -24,6 +35,12 @@ public class Colocation {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Verrou optimiste (PUT /{id}) et ETag des réponses GET /{id}
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @Column(name = "name", nullable = false)
     private String name;
 
@@ -76,26 +93,39 @@ public class Colocation {
     @Column(name = "has_private_bathroom")
     private Boolean hasPrivateBathroom;
 
+    // Bitmask of the amenity flags above (see Amenity), computed before each insert/update
+    @ColumnDefault("0")
+    @Column(name = "amenities", nullable = false)
+    private Integer amenities = 0;
+
     @Column(name = "max_roommates")
     private Integer maxRoommates;
 
+    // Places occupées : nombre d'appartenances, jamais lu depuis un DTO (garde de capacité de reserveRoommateSlot)
     @Column(name = "current_roommates")
-    private Integer currentRoommates;
+    private Integer currentRoommates = 0;
 
     @Column(name = "status")
     private String status; // e.g., "Available", "Occupied", "Pending"
 
+    // Les collections sont chargées par lots (@BatchSize) : une requête par collection pour toute une page
     @ElementCollection
     @CollectionTable(name = "colocation_rules", joinColumns = @JoinColumn(name = "colocation_id"))
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation-rules")
     @Column(name = "rule")
     private List<String> rules; // e.g., "No smoking", "No pets", "Vegetarian only"
 
     @ElementCollection
     @CollectionTable(name = "colocation_tags", joinColumns = @JoinColumn(name = "colocation_id"))
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation-tags")
     @Column(name = "tag")
     private List<String> tags; // e.g., "Near university", "Quiet area"
 
     @OneToMany(mappedBy = "colocation", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation-images")
     @JsonManagedReference
     private List<ColocationImage> images = new ArrayList<>();
 
@@ -110,6 +140,8 @@ public class Colocation {
     private LocalDate updatedAt;
 
     @OneToMany(mappedBy = "colocation", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation-reviews")
     private List<Review> reviews;
 
 
@@ -119,8 +151,16 @@ public class Colocation {
     @Column(name = "is_published", nullable = false)
     private Boolean isPublished = false;
 
-    @Transient
-    private Double averageRating; // optional transient field for displaying average
+    // Agrégats des notes, tenus à jour par ReviewServiceImpl.addReview (UPDATE atomique) : la moyenne
+    // s'en déduit sans charger les reviews
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false)
+    private Long ratingSum = 0L;
+
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false)
+    private Long ratingCount = 0L;
+
     @Transient
     private List<Map<String, Object>> assignedUserInfos;
 
@@ -129,23 +169,30 @@ public class Colocation {
     //@Column(name = "image_url")
     //private List<String> imageUrls;
 
-    @ElementCollection
-    @CollectionTable(name = "colocation_assigned_users", joinColumns = @JoinColumn(name = "colocation_id"))
-    @Column(name = "user_id")
-    private List<String> assignedUserIds = new ArrayList<>();
-
-
-    @PostLoad
-    public void calculateAverageRating() {
-        if (reviews != null && !reviews.isEmpty()) {
-            this.averageRating = reviews.stream()
-                    .mapToInt(Review::getRating)
-                    .average()
-                    .orElse(0.0);
-        } else {
-            this.averageRating = 0.0;
-        }
+    // Une ligne par colocataire : une affectation ajoute ou supprime une ligne au lieu de réécrire la collection
+    @OneToMany(mappedBy = "colocation", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 100)
+    @OrderBy("id")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation-memberships")
+    @JsonIgnore
+    private List<ColocationMembership> memberships = new ArrayList<>();
+
+
+    public Double getAverageRating() {
+        return averageRating(ratingSum, ratingCount);
     }
+
+    public static double averageRating(Long ratingSum, Long ratingCount) {
+        return ratingCount == null || ratingCount == 0 || ratingSum == null ? 0.0 : (double) ratingSum / ratingCount;
+    }
+
+    // Remplacement de toute la liste (création / mise à jour depuis un DTO) : les agrégats sont recalculés
+    public void setReviews(List<Review> reviews) {
+        this.reviews = reviews;
+        this.ratingSum = reviews == null ? 0L : reviews.stream().mapToLong(Review::getRating).sum();
+        this.ratingCount = reviews == null ? 0L : (long) reviews.size();
+    }
+
     public void addImage(ColocationImage image) {
         images.add(image);
         image.setColocation(this);
@@ -162,29 +209,52 @@ public class Colocation {
         if (price != null && price < 0) {
             throw new IllegalArgumentException("Price must be >= 0");
         }
+        this.amenities = Amenity.mask(Amenity.of(this));
+    }
+
+    /**
+     * Ids of the assigned users, in the order they joined.
+     */
+    public List<String> getAssignedUserIds() {
+        return memberships.stream().map(ColocationMembership::getUserId).toList();
+    }
+
+    // Remplacement de toute la liste (création / mise à jour depuis un DTO) : les membres conservés gardent leur ligne
+    public void setAssignedUserIds(List<String> userIds) {
+        Set<String> kept = userIds == null ? Set.of() : new LinkedHashSet<>(userIds);
+        if (maxRoommates != null && kept.size() > maxRoommates) {
+            throw new IllegalArgumentException(kept.size() + " assigned users for at most " + maxRoommates + " roommates.");
+        }
+        memberships.removeIf(membership -> !kept.contains(membership.getUserId()));
+        Set<String> present = new HashSet<>(getAssignedUserIds());
+        kept.stream().filter(userId -> !present.contains(userId)).forEach(this::addMembership);
+        this.currentRoommates = memberships.size();
+    }
+
+    public boolean hasMember(String userId) {
+        return memberships.stream().anyMatch(membership -> membership.getUserId().equals(userId));
     }
 
+    // Affectation en mémoire, avant le premier enregistrement : pour une colocation existante, le service réserve
+    // la place par un UPDATE conditionnel (ColocationRepository.reserveRoommateSlot)
     public boolean assignUser(String userId) {
-        if (assignedUserIds.contains(userId)) {
+        if (hasMember(userId)) {
             throw new IllegalArgumentException("User " + userId + " is already assigned to this colocation.");
         }
-        if (assignedUserIds.size() >= maxRoommates) {
+        if (memberships.size() >= maxRoommates) {
             throw new IllegalStateException("Cannot assign more users. Maximum roommates limit reached.");
         }
 
-        assignedUserIds.add(userId);
-        this.currentRoommates = assignedUserIds.size();
+        addMembership(userId);
+        this.currentRoommates = memberships.size();
         return true;
     }
 
-    public boolean removeAssignedUser(String userId) {
-        if (!assignedUserIds.contains(userId)) {
-            throw new IllegalArgumentException("User " + userId + " is not assigned to this colocation.");
-        }
-
-        assignedUserIds.remove(userId);
-        this.currentRoommates = assignedUserIds.size();
-        return true;
+    private void addMembership(String userId) {
+        ColocationMembership membership = new ColocationMembership();
+        membership.setColocation(this);
+        membership.setUserId(userId);
+        memberships.add(membership);
     }
 
 
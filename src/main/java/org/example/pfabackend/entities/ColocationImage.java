@@ -5,9 +5,12 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "colocation_image")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation-image")
 @Getter
 @Setter
 public class ColocationImage {
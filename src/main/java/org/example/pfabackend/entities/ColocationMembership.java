@@ -0,0 +1,47 @@
+package org.example.pfabackend.entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.pfabackend.enums.MembershipRole;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user assigned to a colocation. The unique (user_id, colocation_id) index answers "colocations of a user"
+ * and "is this user a member" from the index alone; the colocation_id index lists the members of a colocation.
+ */
+@Entity
+@Table(name = "colocation_membership",
+        uniqueConstraints = @UniqueConstraint(name = "uk_colocation_membership_user_colocation",
+                columnNames = {"user_id", "colocation_id"}),
+        indexes = @Index(name = "idx_colocation_membership_colocation", columnList = "colocation_id"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "colocation-membership")
+@Getter
+@Setter
+public class ColocationMembership {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "colocation_id", nullable = false)
+    @JsonIgnore
+    private Colocation colocation;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "role", nullable = false, length = 20)
+    private MembershipRole role = MembershipRole.ROOMMATE;
+
+    @CreationTimestamp
+    @Column(name = "joined_at", nullable = false, updatable = false)
+    private LocalDateTime joinedAt;
+}
@@ -0,0 +1,53 @@
+package org.example.pfabackend.entities;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * A search saved by a user, who is notified when a newly published colocation matches it.
+ */
+@Entity
+@Table(name = "saved_search", indexes = {
+        @Index(name = "idx_saved_search_user", columnList = "user_id")
+})
+@Getter
+@Setter
+public class SavedSearch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "name")
+    private String name;
+
+    // Même sémantique que le paramètre search de GET /api/colocations
+    @Column(name = "keyword")
+    private String keyword;
+
+    @Column(name = "city")
+    private String city;
+
+    @Column(name = "min_price")
+    private Double minPrice;
+
+    @Column(name = "max_price")
+    private Double maxPrice;
+
+    // Equipements requis (bitmask, voir Amenity)
+    @ColumnDefault("0")
+    @Column(name = "amenities", nullable = false)
+    private Integer amenities = 0;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,73 @@
+package org.example.pfabackend.enums;
+
+import org.example.pfabackend.entities.Colocation;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Function;
+
+public enum Amenity {
+    // Les bits sont persistés dans colocation.amenities : ne jamais les renuméroter
+    WIFI(1, Colocation::getHasWifi),
+    PARKING(1 << 1, Colocation::getHasParking),
+    AIR_CONDITIONING(1 << 2, Colocation::getHasAirConditioning),
+    FURNISHED(1 << 3, Colocation::getIsFurnished),
+    BALCONY(1 << 4, Colocation::getHasBalcony),
+    PRIVATE_BATHROOM(1 << 5, Colocation::getHasPrivateBathroom);
+
+    private final int bit;
+    private final Function<Colocation, Boolean> flag;
+
+    Amenity(int bit, Function<Colocation, Boolean> flag) {
+        this.bit = bit;
+        this.flag = flag;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    public boolean isOffered(Colocation colocation) {
+        return Boolean.TRUE.equals(flag.apply(colocation));
+    }
+
+    public static int mask(Set<Amenity> amenities) {
+        int mask = 0;
+        for (Amenity amenity : amenities) {
+            mask |= amenity.bit;
+        }
+        return mask;
+    }
+
+    public static Set<Amenity> of(Colocation colocation) {
+        Set<Amenity> amenities = EnumSet.noneOf(Amenity.class);
+        for (Amenity amenity : values()) {
+            if (amenity.isOffered(colocation)) {
+                amenities.add(amenity);
+            }
+        }
+        return amenities;
+    }
+
+    public static Set<Amenity> fromMask(int mask) {
+        Set<Amenity> amenities = EnumSet.noneOf(Amenity.class);
+        for (Amenity amenity : values()) {
+            if ((mask & amenity.bit) != 0) {
+                amenities.add(amenity);
+            }
+        }
+        return amenities;
+    }
+
+    /**
+     * Accepts "wifi", "WIFI", "air-conditioning" or "air_conditioning".
+     */
+    public static Amenity fromParam(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Unknown amenity '" + value + "'");
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.pfabackend.enums;
+
+import java.util.*;
+
+/**
+ * Fields of {@link org.example.pfabackend.dto.ColocationDTO} that can be requested with {@code ?fields=}.
+ * Scalar fields name the {@code Colocation} attributes they are read from; collection fields (no attribute)
+ * are loaded by their own query, only when requested.
+ */
+public enum ColocationField {
+    ID("id", "id"),
+    NAME("name", "name"),
+    ID_OF_PUBLISHER("idOfPublisher", "idOfPublisher"),
+    NAME_OF_PUBLISHER("nameOfPublisher", "nameOfPublisher"),
+    ADDRESS("address", "address"),
+    CITY("city", "city"),
+    POSTAL_CODE("postalCode", "postalCode"),
+    DESCRIPTION("description", "description"),
+    PRICE("price", "price"),
+    NUMBER_OF_ROOMS("numberOfRooms", "numberOfRooms"),
+    ROOMMATES_GENDER_PREFERENCE("roommatesGenderPreference", "roommatesGenderPreference"),
+    HAS_WIFI("hasWifi", "hasWifi"),
+    HAS_PARKING("hasParking", "hasParking"),
+    HAS_AIR_CONDITIONING("hasAirConditioning", "hasAirConditioning"),
+    IS_FURNISHED("isFurnished", "isFurnished"),
+    HAS_BALCONY("hasBalcony", "hasBalcony"),
+    HAS_PRIVATE_BATHROOM("hasPrivateBathroom", "hasPrivateBathroom"),
+    MAX_ROOMMATES("maxRoommates", "maxRoommates"),
+    CURRENT_ROOMMATES("currentRoommates", "currentRoommates"),
+    STATUS("status", "status"),
+    AVERAGE_RATING("averageRating", "ratingSum", "ratingCount"),
+    AVAILABLE_FROM("availableFrom", "availableFrom"),
+    CREATED_AT("createdAt", "createdAt"),
+    UPDATED_AT("updatedAt", "updatedAt"),
+    IS_ARCHIVED("isArchived", "isArchived"),
+    IS_PUBLISHED("isPublished", "isPublished"),
+    VERSION("version", "version"),
+    RULES("rules"),
+    TAGS("tags"),
+    IMAGE_URLS("imageUrls"),
+    REVIEWS("reviews"),
+    ASSIGNED_USER_IDS("assignedUserIds");
+
+    private static final Map<String, ColocationField> BY_PARAM = new HashMap<>();
+
+    static {
+        for (ColocationField field : values()) {
+            BY_PARAM.put(field.param, field);
+        }
+    }
+
+    private final String param;
+    private final List<String> attributes;
+
+    ColocationField(String param, String... attributes) {
+        this.param = param;
+        this.attributes = List.of(attributes);
+    }
+
+    public String param() {
+        return param;
+    }
+
+    public List<String> attributes() {
+        return attributes;
+    }
+
+    public boolean isCollection() {
+        return attributes.isEmpty();
+    }
+
+    /**
+     * Parses "id,name,imageUrls" (JSON property names), keeping the requested order.
+     */
+    public static Set<ColocationField> fromParam(String fields) {
+        Set<ColocationField> parsed = new LinkedHashSet<>();
+        for (String name : fields.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            ColocationField field = BY_PARAM.get(name.trim());
+            if (field == null) {
+                throw new IllegalArgumentException("Unknown field '" + name.trim() + "'");
+            }
+            parsed.add(field);
+        }
+        if (parsed.isEmpty()) {
+            throw new IllegalArgumentException("No field requested");
+        }
+        return parsed;
+    }
+}
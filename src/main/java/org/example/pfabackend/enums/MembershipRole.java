@@ -0,0 +1,5 @@
+package org.example.pfabackend.enums;
+
+public enum MembershipRole {
+    ROOMMATE        // colocataire affecté par le propriétaire ou un admin
+}
@@ -0,0 +1,7 @@
+package org.example.pfabackend.enums;
+
+public enum SearchScope {
+    ALL,            // admin : toutes les colocations
+    PUBLIC,         // publiées et non archivées
+    NON_PUBLISHED   // en attente de publication
+}
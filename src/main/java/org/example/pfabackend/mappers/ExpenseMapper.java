@@ -0,0 +1,21 @@
+package org.example.pfabackend.mappers;
+
+import org.example.pfabackend.dto.ExpenseDTO;
+import org.example.pfabackend.dto.ExpenseShareDTO;
+import org.example.pfabackend.entities.Expense;
+import org.example.pfabackend.entities.ExpenseShare;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+
+/**
+ * Entity to DTO mapping of the expenses, generated at compile time by MapStruct (replaces ModelMapper).
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface ExpenseMapper {
+
+    @Mapping(target = "colocationId", source = "colocation.id")
+    ExpenseDTO toDto(Expense expense);
+
+    ExpenseShareDTO toDto(ExpenseShare share);
+}
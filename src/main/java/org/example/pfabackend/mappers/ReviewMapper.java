@@ -2,28 +2,15 @@ package org.example.pfabackend.mappers;
 
 import org.example.pfabackend.dto.ReviewDTO;
 import org.example.pfabackend.entities.Review;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
 
-public class ReviewMapper {
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING)
+public interface ReviewMapper {
 
-    public static ReviewDTO toDto(Review entity) {
-        return new ReviewDTO(
-                entity.getId(),
-                entity.getReviewerId(),
-                entity.getReviewerName(),
-                entity.getRating(),
-                entity.getComment(),
-                entity.getCreatedAt()
-        );
-    }
+    ReviewDTO toDto(Review review);
 
-    public static Review toEntity(ReviewDTO dto) {
-        Review review = new Review();
-        review.setId(dto.id());
-        review.setReviewerId(dto.reviewerId());
-        review.setReviewerName(dto.reviewerName());
-        review.setComment(dto.comment());
-        review.setRating(dto.rating());
-        review.setCreatedAt(dto.createdAt());
-        return review;
-    }
+    @Mapping(target = "colocation", ignore = true)
+    Review toEntity(ReviewDTO dto);
 }
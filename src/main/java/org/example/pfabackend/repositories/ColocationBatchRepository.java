@@ -0,0 +1,128 @@
+package org.example.pfabackend.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.entities.ColocationImage;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JDBC batch inserts of new colocations for the bulk import. Hibernate cannot batch inserts of IDENTITY
+ * entities (each row needs its generated id before the next one), so the rows are written here with one
+ * batch per table, the ids being read back from the generated keys of the colocation batch.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ColocationBatchRepository {
+
+    private static final String INSERT_COLOCATION = "INSERT INTO colocation (version, name, id_of_publisher, " +
+            "name_of_publisher, address, city, postal_code, description, price, available_from, number_of_rooms, " +
+            "roommates_gender_preference, has_wifi, has_parking, has_air_conditioning, is_furnished, has_balcony, " +
+            "has_private_bathroom, amenities, max_roommates, current_roommates, status, created_at, updated_at, " +
+            "is_archived, is_published, rating_sum, rating_count) " +
+            "VALUES (0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0)";
+    private static final String INSERT_RULE = "INSERT INTO colocation_rules (colocation_id, rule) VALUES (?, ?)";
+    private static final String INSERT_TAG = "INSERT INTO colocation_tags (colocation_id, tag) VALUES (?, ?)";
+    private static final String INSERT_IMAGE = "INSERT INTO colocation_image (colocation_id, url) VALUES (?, ?)";
+    private static final String INSERT_MEMBERSHIP = "INSERT INTO colocation_membership (colocation_id, user_id, role, joined_at) " +
+            "VALUES (?, ?, 'ROOMMATE', CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the colocations with their rules, tags, images and memberships, and sets their generated ids.
+     * The amenities mask must already be computed (no entity callback runs here).
+     */
+    public void insertAll(List<Colocation> colocations) {
+        if (colocations.isEmpty()) {
+            return;
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(INSERT_COLOCATION, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        new ArgumentPreparedStatementSetter(columns(colocations.get(i))).setValues(ps);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return colocations.size();
+                    }
+                }, keys);
+
+        // Une clé par ligne, dans l'ordre du batch (nom de colonne "id" ou "ID" selon le pilote)
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < colocations.size(); i++) {
+            colocations.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+
+        List<Object[]> rules = new ArrayList<>();
+        List<Object[]> tags = new ArrayList<>();
+        List<Object[]> images = new ArrayList<>();
+        List<Object[]> memberships = new ArrayList<>();
+        for (Colocation colocation : colocations) {
+            addRows(rules, colocation.getId(), colocation.getRules());
+            addRows(tags, colocation.getId(), colocation.getTags());
+            colocation.getImages().stream().map(ColocationImage::getUrl)
+                    .forEach(url -> images.add(new Object[]{colocation.getId(), url}));
+            addRows(memberships, colocation.getId(), colocation.getAssignedUserIds());
+        }
+        batch(INSERT_RULE, rules);
+        batch(INSERT_TAG, tags);
+        batch(INSERT_IMAGE, images);
+        batch(INSERT_MEMBERSHIP, memberships);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+
+    private static void addRows(List<Object[]> rows, Long id, List<String> values) {
+        if (values != null) {
+            values.forEach(value -> rows.add(new Object[]{id, value}));
+        }
+    }
+
+    private static Object[] columns(Colocation colocation) {
+        return new Object[]{
+                colocation.getName(),
+                colocation.getIdOfPublisher(),
+                colocation.getNameOfPublisher(),
+                colocation.getAddress(),
+                colocation.getCity(),
+                colocation.getPostalCode(),
+                colocation.getDescription(),
+                colocation.getPrice(),
+                colocation.getAvailableFrom(),
+                colocation.getNumberOfRooms(),
+                colocation.getRoommatesGenderPreference(),
+                colocation.getHasWifi(),
+                colocation.getHasParking(),
+                colocation.getHasAirConditioning(),
+                colocation.getIsFurnished(),
+                colocation.getHasBalcony(),
+                colocation.getHasPrivateBathroom(),
+                colocation.getAmenities(),
+                colocation.getMaxRoommates(),
+                colocation.getCurrentRoommates(),
+                colocation.getStatus(),
+                colocation.getCreatedAt(),
+                colocation.getUpdatedAt(),
+                colocation.getIsArchived(),
+                colocation.getIsPublished()
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.pfabackend.repositories;
+
+import org.example.pfabackend.entities.ColocationMembership;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+// Toutes ces requêtes se résolvent dans l'index unique (user_id, colocation_id) ou dans celui de colocation_id
+public interface ColocationMembershipRepository extends JpaRepository<ColocationMembership, Long> {
+
+    boolean existsByColocationIdAndUserId(Long colocationId, String userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ColocationMembership m WHERE m.colocation.id = :colocationId AND m.userId = :userId")
+    int deleteByColocationIdAndUserId(@Param("colocationId") Long colocationId, @Param("userId") String userId);
+
+    @Query("SELECT m.colocation.id FROM ColocationMembership m WHERE m.userId = :userId ORDER BY m.colocation.id DESC")
+    List<Long> findColocationIdsByUserId(@Param("userId") String userId);
+
+    @Query("SELECT m.colocation.id FROM ColocationMembership m WHERE m.userId = :userId ORDER BY m.colocation.id DESC")
+    Page<Long> findColocationIdsByUserId(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT m.colocation.id FROM ColocationMembership m " +
+            "WHERE m.userId = :userId AND m.colocation.id < :after ORDER BY m.colocation.id DESC")
+    Slice<Long> findColocationIdsByUserIdBefore(@Param("userId") String userId, @Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT m.userId FROM ColocationMembership m WHERE m.colocation.id = :colocationId ORDER BY m.id")
+    List<String> findUserIdsByColocationId(@Param("colocationId") Long colocationId);
+
+    @Query("SELECT m.colocation.id, m.userId FROM ColocationMembership m WHERE m.colocation.id IN :colocationIds ORDER BY m.id")
+    List<Object[]> findUserIdsByColocationIdIn(@Param("colocationIds") Collection<Long> colocationIds);
+}
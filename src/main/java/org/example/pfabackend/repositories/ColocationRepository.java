@@ -1,17 +1,57 @@
 package org.example.pfabackend.repositories;
 
+import org.example.pfabackend.dto.ColocationSummaryDTO;
+import org.example.pfabackend.dto.ColocationModerationState;
+import org.example.pfabackend.dto.ColocationVersion;
+import org.example.pfabackend.dto.ReviewDTO;
+import jakarta.persistence.QueryHint;
 import org.example.pfabackend.entities.Colocation;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ColocationRepository extends JpaRepository<Colocation, Long> {
 
+    // Weighted tsvector of a colocation (A: name, B: city, C: tags and rules, D: other text fields)
+    String SEARCH_VECTOR = "setweight(to_tsvector(CAST(:config AS regconfig), coalesce(c.name, '')), 'A') || " +
+            "setweight(to_tsvector(CAST(:config AS regconfig), coalesce(c.city, '') || ' ' || coalesce(c.postal_code, '')), 'B') || " +
+            "setweight(to_tsvector(CAST(:config AS regconfig), " +
+            "coalesce((SELECT string_agg(t.tag, ' ') FROM colocation_tags t WHERE t.colocation_id = c.id), '') || ' ' || " +
+            "coalesce((SELECT string_agg(r.rule, ' ') FROM colocation_rules r WHERE r.colocation_id = c.id), '')), 'C') || " +
+            "setweight(to_tsvector(CAST(:config AS regconfig), coalesce(c.name_of_publisher, '') || ' ' || " +
+            "coalesce(c.address, '') || ' ' || coalesce(c.description, '') || ' ' || coalesce(c.status, '') || ' ' || " +
+            "coalesce(c.roommates_gender_preference, '')), 'D')";
+
+    int EXPORT_FETCH_SIZE = 500;
+
+    String FULL_TEXT_SCOPE = "(:scope = 'ALL' " +
+            "OR (:scope = 'PUBLIC' AND c.is_published = true AND c.is_archived = false) " +
+            "OR (:scope = 'NON_PUBLISHED' AND c.is_published = false))";
+
+    // Carte d'une colocation : colonnes scalaires (dont les agrégats de notes) + première image en sous-requête
+    String SUMMARY = "SELECT new org.example.pfabackend.dto.ColocationSummaryDTO(c.id, c.name, c.city, c.price, " +
+            "c.numberOfRooms, c.availableFrom, " +
+            "(SELECT i.url FROM ColocationImage i WHERE i.id = " +
+            "(SELECT MIN(i2.id) FROM ColocationImage i2 WHERE i2.colocation = c)), " +
+            "c.ratingSum, c.ratingCount, " +
+            "c.amenities, c.isPublished, c.isArchived) FROM Colocation c";
+
+    @Query(SUMMARY + " WHERE c.id IN :ids")
+    List<ColocationSummaryDTO> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT c FROM Colocation c LEFT JOIN c.rules r LEFT JOIN c.tags t WHERE " +
             "LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.nameOfPublisher) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -43,6 +83,13 @@ public interface ColocationRepository extends JpaRepository<Colocation, Long> {
     @Query("SELECT c FROM Colocation c WHERE c.isPublished = false")
     Page<Colocation> findNonPublishedColocations(Pageable pageable);
 
+    // Keyset pagination (id DESC, id < :after) : pas d'OFFSET ni de count(*)
+    @Query("SELECT c.id FROM Colocation c WHERE c.isPublished = true AND c.isArchived = false AND c.id < :after ORDER BY c.id DESC")
+    Slice<Long> findPublicIdsBefore(@Param("after") Long after, Pageable pageable);
+
+    @Query("SELECT c.id FROM Colocation c WHERE c.isPublished = false AND c.id < :after ORDER BY c.id DESC")
+    Slice<Long> findNonPublishedIdsBefore(@Param("after") Long after, Pageable pageable);
+
 
     @Query("SELECT c FROM Colocation c LEFT JOIN c.rules r LEFT JOIN c.tags t WHERE " +
             "(LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -57,10 +104,11 @@ public interface ColocationRepository extends JpaRepository<Colocation, Long> {
             "LOWER(t) LIKE LOWER(CONCAT('%', :keyword, '%'))) AND " +
             "c.isPublished = false")
     Page<Colocation> searchNonPublished(@Param("keyword") String keyword, Pageable pageable);
-    @Query("SELECT c FROM Colocation c " +
+    @Query("SELECT DISTINCT c.id FROM Colocation c " +
             "LEFT JOIN c.rules r " +
             "LEFT JOIN c.tags t " +
-            "WHERE (:idOfPublisher = c.idOfPublisher OR :idOfPublisher IN elements(c.assignedUserIds)) AND (" +
+            "WHERE (:idOfPublisher = c.idOfPublisher OR " +
+            "c.id IN (SELECT m.colocation.id FROM ColocationMembership m WHERE m.userId = :idOfPublisher)) AND (" +
             ":keyword IS NULL OR :keyword = '' OR " +
             "LOWER(c.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(c.nameOfPublisher) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
@@ -72,21 +120,166 @@ public interface ColocationRepository extends JpaRepository<Colocation, Long> {
             "LOWER(c.roommatesGenderPreference) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(r) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(t) LIKE LOWER(CONCAT('%', :keyword, '%'))" +
-            ")")
-    Page<Colocation> findOwnColocationsByKeyword(
+            ") ORDER BY c.id DESC")
+    Page<Long> findOwnColocationIdsByKeyword(
             @Param("idOfPublisher") String idOfPublisher,
             @Param("keyword") String keyword,
             Pageable pageable);
 
-    @Query("SELECT c FROM Colocation c " +
-            "WHERE c.id = :id " +
-            "AND (:idOfUser = c.idOfPublisher OR :idOfUser IN elements(c.assignedUserIds))")
-    Optional<Colocation> getByIdVisibleToUser(
-            @Param("id") Long id,
-            @Param("idOfUser") String idOfUser);
+    // Curseur JDBC en avant seulement : les lignes arrivent par paquets de EXPORT_FETCH_SIZE
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT c FROM Colocation c ORDER BY c.id")
+    Stream<Colocation> streamAll();
+
+    // Colocations publiées par un utilisateur (index idx_colocation_publisher)
+    @Query("SELECT c.id FROM Colocation c WHERE c.idOfPublisher = :idOfPublisher")
+    List<Long> findIdsByIdOfPublisher(@Param("idOfPublisher") String idOfPublisher);
+
+    @Query("SELECT c.version AS version, c.updatedAt AS updatedAt FROM Colocation c WHERE c.id = :id")
+    Optional<ColocationVersion> findVersionById(@Param("id") Long id);
+
+    // Collections d'une colocation demandées par ?fields=, sans charger l'entité
+    @Query("SELECT r FROM Colocation c JOIN c.rules r WHERE c.id = :id")
+    List<String> findRulesById(@Param("id") Long id);
+
+    @Query("SELECT t FROM Colocation c JOIN c.tags t WHERE c.id = :id")
+    List<String> findTagsById(@Param("id") Long id);
+
+    @Query("SELECT i.url FROM ColocationImage i WHERE i.colocation.id = :id ORDER BY i.id")
+    List<String> findImageUrlsById(@Param("id") Long id);
+
+    @Query("SELECT new org.example.pfabackend.dto.ReviewDTO(r.id, r.reviewerId, r.reviewerName, r.rating, r.comment, r.createdAt) " +
+            "FROM Review r WHERE r.colocation.id = :id ORDER BY r.id")
+    List<ReviewDTO> findReviewsById(@Param("id") Long id);
+
+
+    @Query("SELECT c.id FROM Colocation c WHERE :scope = 'ALL' " +
+            "OR (:scope = 'PUBLIC' AND c.isPublished = true AND c.isArchived = false) " +
+            "OR (:scope = 'NON_PUBLISHED' AND c.isPublished = false)")
+    Page<Long> findIdsByScope(@Param("scope") String scope, Pageable pageable);
+
+    @Query(value = "SELECT c.id FROM colocation c " +
+            "WHERE c.search_vector @@ websearch_to_tsquery(CAST(:config AS regconfig), :keyword) AND " + FULL_TEXT_SCOPE + " " +
+            "ORDER BY ts_rank(c.search_vector, websearch_to_tsquery(CAST(:config AS regconfig), :keyword)) DESC, c.id DESC",
+            countQuery = "SELECT count(*) FROM colocation c " +
+                    "WHERE c.search_vector @@ websearch_to_tsquery(CAST(:config AS regconfig), :keyword) AND " + FULL_TEXT_SCOPE,
+            nativeQuery = true)
+    Page<Long> fullTextSearchIds(@Param("config") String config,
+                                 @Param("keyword") String keyword,
+                                 @Param("scope") String scope,
+                                 Pageable pageable);
+
+    // Sans espace de synchronisation, Hibernate viderait tout le cache de second niveau à chaque UPDATE natif
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "colocation"))
+    @Query(value = "UPDATE colocation c SET search_vector = " + SEARCH_VECTOR + " WHERE c.id = :id", nativeQuery = true)
+    int refreshSearchVector(@Param("config") String config, @Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "colocation"))
+    @Query(value = "UPDATE colocation c SET search_vector = " + SEARCH_VECTOR + " WHERE c.id IN (:ids)", nativeQuery = true)
+    int refreshSearchVectors(@Param("config") String config, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Transactional
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "colocation"))
+    @Query(value = "UPDATE colocation c SET search_vector = " + SEARCH_VECTOR, nativeQuery = true)
+    int refreshAllSearchVectors(@Param("config") String config);
+
+    // Transaction propre, en écriture, même appelée depuis une lecture (reconstruction des index au démarrage)
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "colocation"))
+    @Query(value = "UPDATE colocation c SET search_vector = " + SEARCH_VECTOR + " WHERE c.search_vector IS NULL", nativeQuery = true)
+    int refreshMissingSearchVectors(@Param("config") String config);
+
+    // Bits identiques à Amenity (WIFI=1, PARKING=2, AIR_CONDITIONING=4, FURNISHED=8, BALCONY=16, PRIVATE_BATHROOM=32).
+    // Seules les lignes antérieures à la colonne (masque à 0 mais au moins un équipement) sont réécrites :
+    // au démarrage suivant, plus aucune ligne ne correspond
+    @Modifying
+    @Transactional
+    @Query("UPDATE Colocation c SET c.amenities = " +
+            "(CASE WHEN c.hasWifi = true THEN 1 ELSE 0 END) + " +
+            "(CASE WHEN c.hasParking = true THEN 2 ELSE 0 END) + " +
+            "(CASE WHEN c.hasAirConditioning = true THEN 4 ELSE 0 END) + " +
+            "(CASE WHEN c.isFurnished = true THEN 8 ELSE 0 END) + " +
+            "(CASE WHEN c.hasBalcony = true THEN 16 ELSE 0 END) + " +
+            "(CASE WHEN c.hasPrivateBathroom = true THEN 32 ELSE 0 END) " +
+            "WHERE c.amenities = 0 AND (c.hasWifi = true OR c.hasParking = true OR c.hasAirConditioning = true " +
+            "OR c.isFurnished = true OR c.hasBalcony = true OR c.hasPrivateBathroom = true)")
+    int backfillAmenities();
+
+    // Incrément atomique des agrégats de notes, sans relire les reviews (la note moyenne change : nouvelle version)
+    @Modifying
+    @Query("UPDATE Colocation c SET c.ratingSum = c.ratingSum + :rating, c.ratingCount = c.ratingCount + 1, " +
+            "c.version = c.version + 1 WHERE c.id = :id")
+    int addRating(@Param("id") Long id, @Param("rating") long rating);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Colocation c SET " +
+            "c.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.colocation = c), " +
+            "c.ratingCount = (SELECT COUNT(r) FROM Review r WHERE r.colocation = c), " +
+            "c.version = c.version + 1 " +
+            "WHERE c.ratingCount = 0 AND EXISTS (SELECT r FROM Review r WHERE r.colocation = c)")
+    int backfillRatings();
+
+    // Réservation atomique d'une place : la condition est évaluée sur la ligne verrouillée par l'UPDATE,
+    // deux affectations simultanées ne peuvent donc pas prendre la dernière place toutes les deux
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colocation c SET c.currentRoommates = COALESCE(c.currentRoommates, 0) + 1, c.version = c.version + 1 " +
+            "WHERE c.id = :id AND COALESCE(c.currentRoommates, 0) < c.maxRoommates")
+    int reserveRoommateSlot(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colocation c SET c.currentRoommates = c.currentRoommates - 1, c.version = c.version + 1 " +
+            "WHERE c.id = :id AND c.currentRoommates > 0")
+    int releaseRoommateSlot(@Param("id") Long id);
+
+    // Compteur absent ou désaccordé (colocations antérieures aux affectations, ou compteur écrit par un client) :
+    // recalculé depuis les appartenances ; les lignes déjà justes ne sont pas réécrites
+    @Modifying
+    @Transactional
+    @Query("UPDATE Colocation c SET c.currentRoommates = " +
+            "(SELECT COUNT(m) FROM ColocationMembership m WHERE m.colocation = c) " +
+            "WHERE c.currentRoommates IS NULL " +
+            "OR c.currentRoommates <> (SELECT COUNT(m) FROM ColocationMembership m WHERE m.colocation = c)")
+    int backfillCurrentRoommates();
+
+    // Modération en masse : une requête par opération pour toute la liste d'ids (IN borné par MAX_BULK_IDS)
+    int MAX_BULK_IDS = 1000;
+
+    @Query("SELECT c.id AS id, c.idOfPublisher AS idOfPublisher, c.isPublished AS isPublished, c.isArchived AS isArchived " +
+            "FROM Colocation c WHERE c.id IN :ids")
+    List<ColocationModerationState> findModerationStatesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colocation c SET c.isPublished = :isPublished, c.version = c.version + 1 WHERE c.id IN :ids")
+    int updateIsPublished(@Param("ids") Collection<Long> ids, @Param("isPublished") boolean isPublished);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Colocation c SET c.isArchived = :isArchived, c.version = c.version + 1 WHERE c.id IN :ids")
+    int updateIsArchived(@Param("ids") Collection<Long> ids, @Param("isArchived") boolean isArchived);
+
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM ColocationImage i WHERE i.colocation.id IN :ids")
+    int deleteImagesByColocationIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM Review r WHERE r.colocation.id IN :ids")
+    int deleteReviewsByColocationIdIn(@Param("ids") Collection<Long> ids);
 
+    @Modifying
+    @Query("DELETE FROM ColocationMembership m WHERE m.colocation.id IN :ids")
+    int deleteMembershipsByColocationIdIn(@Param("ids") Collection<Long> ids);
 
-    // Add these methods to your repository interface
-    List<Colocation> findByAssignedUserIdsContaining(String userId);
-    Page<Colocation> findByAssignedUserIdsContaining(String userId, Pageable pageable);
+    // Hibernate supprime d'abord les lignes des collections de valeurs (règles, tags)
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Colocation c WHERE c.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
 }
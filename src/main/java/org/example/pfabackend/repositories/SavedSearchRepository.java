@@ -0,0 +1,13 @@
+package org.example.pfabackend.repositories;
+
+import org.example.pfabackend.entities.SavedSearch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface SavedSearchRepository extends JpaRepository<SavedSearch, Long> {
+    List<SavedSearch> findByUserIdOrderByCreatedAtDesc(String userId);
+
+    Optional<SavedSearch> findByIdAndUserId(Long id, String userId);
+}
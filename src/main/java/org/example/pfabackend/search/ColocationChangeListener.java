@@ -0,0 +1,31 @@
+package org.example.pfabackend.search;
+
+import java.util.Collection;
+
+/**
+ * In-memory structure kept in sync with the colocation table by {@link ColocationIndexer}.
+ */
+public interface ColocationChangeListener {
+
+    /**
+     * Replaces the whole content with the given documents (application startup).
+     */
+    void rebuild(Collection<ColocationDocument> documents);
+
+    /**
+     * Called after a colocation has been created or modified.
+     */
+    void colocationSaved(ColocationDocument document);
+
+    /**
+     * Called after a batch of colocations has been written together (import chunk).
+     */
+    default void colocationsSaved(Collection<ColocationDocument> documents) {
+        documents.forEach(this::colocationSaved);
+    }
+
+    /**
+     * Called after a colocation has been deleted.
+     */
+    void colocationDeleted(Long id);
+}
@@ -0,0 +1,132 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.enums.Amenity;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Immutable snapshot of a {@link Colocation} as seen by the in-memory indexes, detached from the
+ * persistence context so they never touch lazy collections.
+ */
+public record ColocationDocument(
+        Long id,
+        String name,
+        String nameOfPublisher,
+        String address,
+        String city,
+        String postalCode,
+        String description,
+        String status,
+        String roommatesGenderPreference,
+        List<String> rules,
+        List<String> tags,
+        Double price,
+        Integer numberOfRooms,
+        Set<Amenity> amenities,
+        LocalDate availableFrom,
+        boolean published,
+        boolean archived
+) {
+
+    public static final int GRAM = 3;
+
+    public static ColocationDocument from(Colocation colocation) {
+        return new ColocationDocument(
+                colocation.getId(),
+                colocation.getName(),
+                colocation.getNameOfPublisher(),
+                colocation.getAddress(),
+                colocation.getCity(),
+                colocation.getPostalCode(),
+                colocation.getDescription(),
+                colocation.getStatus(),
+                colocation.getRoommatesGenderPreference(),
+                copyOf(colocation.getRules()),
+                copyOf(colocation.getTags()),
+                colocation.getPrice(),
+                colocation.getNumberOfRooms(),
+                Collections.unmodifiableSet(Amenity.of(colocation)),
+                colocation.getAvailableFrom(),
+                Boolean.TRUE.equals(colocation.getIsPublished()),
+                Boolean.TRUE.equals(colocation.getIsArchived())
+        );
+    }
+
+    /**
+     * Published and not archived: the colocations anonymous users and the listing UI can see.
+     */
+    public boolean isPublic() {
+        return published && !archived;
+    }
+
+    /**
+     * Lower-cased values of every field covered by the keyword search (same fields as the LIKE queries
+     * of {@code ColocationRepository}).
+     */
+    public List<String> searchableFields() {
+        List<String> fields = new ArrayList<>(8 + rules.size() + tags.size());
+        addLowerCase(fields, name);
+        addLowerCase(fields, nameOfPublisher);
+        addLowerCase(fields, address);
+        addLowerCase(fields, city);
+        addLowerCase(fields, postalCode);
+        addLowerCase(fields, description);
+        addLowerCase(fields, status);
+        addLowerCase(fields, roommatesGenderPreference);
+        rules.forEach(rule -> addLowerCase(fields, rule));
+        tags.forEach(tag -> addLowerCase(fields, tag));
+        return fields;
+    }
+
+    /**
+     * Same semantics as {@code LOWER(field) LIKE LOWER('%keyword%')} on any searchable field.
+     */
+    public boolean matches(String lowerCaseKeyword) {
+        return searchableFields().stream().anyMatch(field -> field.contains(lowerCaseKeyword));
+    }
+
+    /**
+     * Trigrams of all the searchable fields: a keyword can only be a substring of a field if all its trigrams are.
+     */
+    public Set<String> trigrams() {
+        Set<String> grams = new HashSet<>();
+        searchableFields().forEach(field -> grams.addAll(trigrams(field)));
+        return grams;
+    }
+
+    public static Set<String> trigrams(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    /**
+     * Lower-cased words (letters and digits) of a text value.
+     */
+    public static List<String> words(String value) {
+        if (value == null || value.isBlank()) {
+            return List.of();
+        }
+        List<String> words = new ArrayList<>();
+        for (String word : value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private static void addLowerCase(List<String> fields, String value) {
+        if (value != null && !value.isEmpty()) {
+            fields.add(value.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private static List<String> copyOf(List<String> values) {
+        return values == null ? List.of() : values.stream().filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,176 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.dto.ColocationFacetsDTO;
+import org.example.pfabackend.dto.ColocationFilter;
+import org.example.pfabackend.enums.Amenity;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Facet counters (city, price range, rooms, gender preference, amenities) over the public colocations.
+ * <p>
+ * The unfiltered counts are maintained incrementally on every write so the listing UI gets them without
+ * any query; a filtered request counts the facet values of the colocations selected by {@link ColocationFilterIndex}.
+ */
+@Component
+public class ColocationFacetIndex implements ColocationChangeListener {
+
+    public static final String CITY = "city";
+    public static final String PRICE_RANGE = "priceRange";
+    public static final String ROOMS = "rooms";
+    public static final String GENDER_PREFERENCE = "genderPreference";
+    public static final String AMENITIES = "amenities";
+
+    private static final int[] PRICE_BOUNDS = {300, 500, 700, 1000};
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, FacetValues> publicValues = new HashMap<>();
+    private final Map<String, Map<String, Integer>> counters = new LinkedHashMap<>();
+    private final ColocationFilterIndex filterIndex;
+
+    public ColocationFacetIndex(ColocationFilterIndex filterIndex) {
+        this.filterIndex = filterIndex;
+        resetCounters();
+    }
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            publicValues.clear();
+            resetCounters();
+            documents.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.id());
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ColocationFacetsDTO facets(ColocationFilter filter) {
+        lock.readLock().lock();
+        try {
+            if (filter == null || filter.isEmpty()) {
+                return new ColocationFacetsDTO(publicValues.size(), sorted(counters));
+            }
+
+            Map<String, Map<String, Integer>> filtered = emptyCounters();
+            long total = 0;
+            BitSet matching = filterIndex.matching(filter);
+            for (int bit = matching.nextSetBit(0); bit >= 0; bit = matching.nextSetBit(bit + 1)) {
+                FacetValues values = publicValues.get((long) bit);
+                if (values != null) {
+                    values.forEach((facet, value) -> filtered.get(facet).merge(value, 1, Integer::sum));
+                    total++;
+                }
+            }
+            return new ColocationFacetsDTO(total, sorted(filtered));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static String priceRange(Double price) {
+        if (price == null) {
+            return null;
+        }
+        int lower = 0;
+        for (int bound : PRICE_BOUNDS) {
+            if (price < bound) {
+                return lower + "-" + bound;
+            }
+            lower = bound;
+        }
+        return lower + "+";
+    }
+
+    private void add(ColocationDocument document) {
+        if (!document.isPublic()) {
+            return;
+        }
+        FacetValues values = FacetValues.of(document);
+        publicValues.put(document.id(), values);
+        values.forEach((facet, value) -> counters.get(facet).merge(value, 1, Integer::sum));
+    }
+
+    private void remove(Long id) {
+        FacetValues previous = publicValues.remove(id);
+        if (previous != null) {
+            previous.forEach((facet, value) -> counters.get(facet).computeIfPresent(value, (key, count) -> count > 1 ? count - 1 : null));
+        }
+    }
+
+    private void resetCounters() {
+        counters.clear();
+        counters.putAll(emptyCounters());
+    }
+
+    private static Map<String, Map<String, Integer>> emptyCounters() {
+        Map<String, Map<String, Integer>> empty = new LinkedHashMap<>();
+        for (String facet : List.of(CITY, PRICE_RANGE, ROOMS, GENDER_PREFERENCE, AMENITIES)) {
+            empty.put(facet, new HashMap<>());
+        }
+        return empty;
+    }
+
+    // Copie triée par nombre décroissant, détachée des compteurs internes
+    private static Map<String, Map<String, Integer>> sorted(Map<String, Map<String, Integer>> source) {
+        Map<String, Map<String, Integer>> copy = new LinkedHashMap<>();
+        source.forEach((facet, counts) -> {
+            Map<String, Integer> values = new LinkedHashMap<>();
+            counts.entrySet().stream()
+                    .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                    .forEach(entry -> values.put(entry.getKey(), entry.getValue()));
+            copy.put(facet, values);
+        });
+        return copy;
+    }
+
+    private record FacetValues(String city, String priceRange, String rooms, String genderPreference, Set<Amenity> amenities) {
+
+        static FacetValues of(ColocationDocument document) {
+            return new FacetValues(
+                    trimToNull(document.city()),
+                    ColocationFacetIndex.priceRange(document.price()),
+                    document.numberOfRooms() != null ? String.valueOf(document.numberOfRooms()) : null,
+                    trimToNull(document.roommatesGenderPreference()),
+                    document.amenities()
+            );
+        }
+
+        void forEach(BiConsumer<String, String> action) {
+            if (city != null) action.accept(CITY, city);
+            if (priceRange != null) action.accept(PRICE_RANGE, priceRange);
+            if (rooms != null) action.accept(ROOMS, rooms);
+            if (genderPreference != null) action.accept(GENDER_PREFERENCE, genderPreference);
+            amenities.forEach(amenity -> action.accept(AMENITIES, amenity.name()));
+        }
+
+        private static String trimToNull(String value) {
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.dto.ColocationFilter;
+import org.example.pfabackend.enums.Amenity;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmap index of the public colocations (published and not archived) for the structured listing filter.
+ * <p>
+ * One bitset per amenity, city and gender preference (bit = colocation id): a combined amenity predicate is
+ * answered by AND-ing the bitsets, the range criteria (price, rooms, availability date) are then checked
+ * on the remaining candidates only.
+ */
+@Component
+public class ColocationFilterIndex implements ColocationChangeListener {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, ColocationDocument> documents = new HashMap<>();
+    private final BitSet visible = new BitSet();
+    private final Map<Amenity, BitSet> byAmenity = new EnumMap<>(Amenity.class);
+    private final Map<String, BitSet> byCity = new HashMap<>();
+    private final Map<String, BitSet> byGenderPreference = new HashMap<>();
+
+    public ColocationFilterIndex() {
+        for (Amenity amenity : Amenity.values()) {
+            byAmenity.put(amenity, new BitSet());
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            this.documents.clear();
+            visible.clear();
+            byAmenity.values().forEach(BitSet::clear);
+            byCity.clear();
+            byGenderPreference.clear();
+            documents.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.id());
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Page of the ids of the public colocations matching the filter, newest first.
+     */
+    public Page<Long> filter(ColocationFilter filter, Pageable pageable) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = match(filter);
+            int total = matching.cardinality();
+            long offset = pageable.getOffset();
+
+            List<Long> content = new ArrayList<>(pageable.getPageSize());
+            int skipped = 0;
+            for (int bit = matching.length() - 1; bit >= 0 && content.size() < pageable.getPageSize(); bit = matching.previousSetBit(bit - 1)) {
+                if (skipped++ >= offset) {
+                    content.add((long) bit);
+                }
+            }
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the public colocations matching the filter, as a bitset (copy).
+     */
+    public BitSet matching(ColocationFilter filter) {
+        lock.readLock().lock();
+        try {
+            return match(filter);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet match(ColocationFilter filter) {
+        BitSet candidates = (BitSet) visible.clone();
+        if (filter == null || filter.isEmpty()) {
+            return candidates;
+        }
+
+        if (filter.amenities() != null) {
+            filter.amenities().forEach(amenity -> candidates.and(byAmenity.get(amenity)));
+        }
+        if (filter.city() != null) {
+            candidates.and(byCity.getOrDefault(key(filter.city()), new BitSet()));
+        }
+        if (filter.genderPreference() != null) {
+            candidates.and(byGenderPreference.getOrDefault(key(filter.genderPreference()), new BitSet()));
+        }
+
+        // Critères par intervalle : vérifiés uniquement sur les candidats restants
+        if (filter.priceRange() != null || filter.minPrice() != null || filter.maxPrice() != null
+                || filter.rooms() != null || filter.availableFrom() != null) {
+            for (int bit = candidates.nextSetBit(0); bit >= 0; bit = candidates.nextSetBit(bit + 1)) {
+                if (!matchesRanges(documents.get((long) bit), filter)) {
+                    candidates.clear(bit);
+                }
+            }
+        }
+        return candidates;
+    }
+
+    private static boolean matchesRanges(ColocationDocument document, ColocationFilter filter) {
+        Double price = document.price();
+        if (filter.priceRange() != null && !filter.priceRange().equals(ColocationFacetIndex.priceRange(price))) {
+            return false;
+        }
+        if (filter.minPrice() != null && (price == null || price < filter.minPrice())) {
+            return false;
+        }
+        if (filter.maxPrice() != null && (price == null || price > filter.maxPrice())) {
+            return false;
+        }
+        if (filter.rooms() != null && !filter.rooms().equals(document.numberOfRooms())) {
+            return false;
+        }
+        // Sans date de disponibilité, la colocation est considérée disponible immédiatement
+        return filter.availableFrom() == null || document.availableFrom() == null
+                || !document.availableFrom().isAfter(filter.availableFrom());
+    }
+
+    private void add(ColocationDocument document) {
+        if (!document.isPublic()) {
+            return;
+        }
+        int bit = Math.toIntExact(document.id());
+        documents.put(document.id(), document);
+        visible.set(bit);
+        document.amenities().forEach(amenity -> byAmenity.get(amenity).set(bit));
+        if (document.city() != null && !document.city().isBlank()) {
+            byCity.computeIfAbsent(key(document.city()), k -> new BitSet()).set(bit);
+        }
+        if (document.roommatesGenderPreference() != null && !document.roommatesGenderPreference().isBlank()) {
+            byGenderPreference.computeIfAbsent(key(document.roommatesGenderPreference()), k -> new BitSet()).set(bit);
+        }
+    }
+
+    private void remove(Long id) {
+        ColocationDocument previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        int bit = Math.toIntExact(id);
+        visible.clear(bit);
+        byAmenity.values().forEach(bits -> bits.clear(bit));
+        clear(byCity, previous.city(), bit);
+        clear(byGenderPreference, previous.roommatesGenderPreference(), bit);
+    }
+
+    private static void clear(Map<String, BitSet> bitsets, String value, int bit) {
+        if (value == null) {
+            return;
+        }
+        String key = key(value);
+        BitSet bits = bitsets.get(key);
+        if (bits != null) {
+            bits.clear(bit);
+            if (bits.isEmpty()) {
+                bitsets.remove(key);
+            }
+        }
+    }
+
+    private static String key(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
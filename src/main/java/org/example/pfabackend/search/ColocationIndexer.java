@@ -0,0 +1,96 @@
+package org.example.pfabackend.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Single entry point of the colocation write paths towards the in-memory indexes: the entity is
+ * snapshotted once into a {@link ColocationDocument} and handed to every {@link ColocationChangeListener},
+ * then to the {@link ColocationSearchCache} once the indexes are up to date.
+ */
+@Slf4j
+@Component
+public class ColocationIndexer {
+
+    private final ColocationRepository colocationRepository;
+    private final List<ColocationChangeListener> listeners;
+    private final ColocationSearchCache searchCache;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ColocationIndexer(ColocationRepository colocationRepository, List<ColocationChangeListener> listeners,
+                             ColocationSearchCache searchCache, PlatformTransactionManager transactionManager) {
+        this.colocationRepository = colocationRepository;
+        this.listeners = listeners;
+        this.searchCache = searchCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        // Seule la lecture des colocations est en lecture seule : un moteur peut écrire pendant sa reconstruction
+        // (search_vector du moteur plein texte)
+        List<ColocationDocument> documents = readOnlyTransaction.execute(status -> colocationRepository.findAll().stream()
+                .map(ColocationDocument::from)
+                .toList());
+        listeners.forEach(listener -> listener.rebuild(documents));
+        searchCache.reset(documents);
+        log.info("{} colocation indexes built from {} colocations", listeners.size(), documents.size());
+    }
+
+    public ColocationDocument saved(Colocation colocation) {
+        return saved(ColocationDocument.from(colocation));
+    }
+
+    /**
+     * Snapshot taken earlier, e.g. inside a transaction whose indexing is deferred until it has committed.
+     */
+    public ColocationDocument saved(ColocationDocument document) {
+        listeners.forEach(listener -> listener.colocationSaved(document));
+        searchCache.saved(document);
+        return document;
+    }
+
+    /**
+     * Colocations written together (import chunk): each listener indexes the whole batch at once.
+     */
+    public List<ColocationDocument> saved(Collection<Colocation> colocations) {
+        List<ColocationDocument> documents = colocations.stream().map(ColocationDocument::from).toList();
+        listeners.forEach(listener -> listener.colocationsSaved(documents));
+        documents.forEach(searchCache::saved);
+        return documents;
+    }
+
+    public void deleted(Long id) {
+        listeners.forEach(listener -> listener.colocationDeleted(id));
+        searchCache.deleted(id);
+    }
+
+    /**
+     * Images or reviews changed: nothing to reindex, only the cached pages showing the colocation are stale.
+     */
+    public void contentChanged(Long id) {
+        // Dans une transaction, le cache n'est invalidé qu'après le commit (sinon une lecture concurrente le re-remplit)
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    searchCache.contentChanged(id);
+                }
+            });
+        } else {
+            searchCache.contentChanged(id);
+        }
+    }
+}
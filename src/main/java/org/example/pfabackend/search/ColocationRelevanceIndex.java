@@ -0,0 +1,237 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.enums.SearchScope;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * BM25F ranking of the colocations for {@code GET /api/colocations?sort=relevance}.
+ * <p>
+ * Inverted index of the words of every text field, with per-field boosts (name > city > tags > description >
+ * other fields) folded into the term frequencies and document lengths. Document frequencies, the number of
+ * documents and the average length are kept up to date on every write. A query ranks the same colocations as the
+ * default search ({@code %keyword%} on any field): its candidates come from the trigram postings (smallest posting
+ * first, probed against the others), are verified with a substring match, then scored and kept in a bounded heap of
+ * the best {@code offset + size} hits, so the work follows the number of candidates rather than of colocations.
+ */
+@Component
+public class ColocationRelevanceIndex implements ColocationChangeListener {
+
+    private static final float NAME_BOOST = 3.0f;
+    private static final float CITY_BOOST = 2.0f;
+    private static final float TAG_BOOST = 1.5f;
+    private static final float DESCRIPTION_BOOST = 1.0f;
+    private static final float OTHER_BOOST = 0.5f;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Float>> postings = new HashMap<>();
+    private final Map<String, Set<Long>> trigramPostings = new HashMap<>();
+    private final Map<Long, Terms> termsById = new HashMap<>();
+    private double totalLength;
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            trigramPostings.clear();
+            termsById.clear();
+            totalLength = 0;
+            documents.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.id());
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Page of the ids of the colocations containing the keyword, as {@link ColocationDocument#matches}, best score
+     * first (ties: newest first).
+     */
+    public Page<Long> search(String keyword, SearchScope scope, Pageable pageable) {
+        String needle = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+        Set<String> words = new LinkedHashSet<>(ColocationDocument.words(needle));
+        lock.readLock().lock();
+        try {
+            int documentCount = termsById.size();
+            if (needle.isEmpty() || documentCount == 0) {
+                return new PageImpl<>(List.of(), pageable, 0);
+            }
+            double averageLength = totalLength / documentCount;
+
+            // Même ensemble de résultats que la recherche par défaut : seul l'ordre change
+            Map<Long, Double> scores = new HashMap<>();
+            for (Long id : candidates(needle)) {
+                Terms terms = termsById.get(id);
+                if (terms.visibleIn(scope) && terms.document.matches(needle)) {
+                    scores.put(id, score(terms, words, documentCount, averageLength));
+                }
+            }
+
+            // Tas borné aux offset + size meilleurs : pas de tri de tous les résultats
+            int limit = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+            PriorityQueue<Map.Entry<Long, Double>> heap = new PriorityQueue<>(Math.max(1, Math.min(limit, scores.size())), RANKING);
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                if (heap.size() < limit) {
+                    heap.add(entry);
+                } else if (limit > 0 && RANKING.compare(entry, heap.peek()) > 0) {
+                    heap.poll();
+                    heap.add(entry);
+                }
+            }
+
+            List<Long> ranked = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                ranked.add(heap.poll().getKey());
+            }
+            Collections.reverse(ranked);
+            List<Long> content = pageable.getOffset() >= ranked.size()
+                    ? List.of()
+                    : ranked.subList((int) pageable.getOffset(), ranked.size());
+            return new PageImpl<>(content, pageable, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the colocations containing every trigram of the needle; all of them below {@link ColocationDocument#GRAM}
+     * characters.
+     */
+    private Collection<Long> candidates(String needle) {
+        if (needle.length() < ColocationDocument.GRAM) {
+            return termsById.keySet();
+        }
+        List<Set<Long>> grams = new ArrayList<>();
+        for (String trigram : ColocationDocument.trigrams(needle)) {
+            Set<Long> posting = trigramPostings.get(trigram);
+            if (posting == null) {
+                return List.of();
+            }
+            grams.add(posting);
+        }
+        grams.sort(Comparator.comparingInt(Set::size));
+        List<Long> candidates = new ArrayList<>();
+        Set<Long> smallest = grams.get(0);
+        List<Set<Long>> others = grams.subList(1, grams.size());
+        for (Long id : smallest) {
+            if (others.stream().allMatch(posting -> posting.contains(id))) {
+                candidates.add(id);
+            }
+        }
+        return candidates;
+    }
+
+    private double score(Terms terms, Set<String> words, int documentCount, double averageLength) {
+        double score = 0;
+        double norm = K1 * (1 - B + B * terms.length / averageLength);
+        for (String word : words) {
+            Map<Long, Float> posting = postings.get(word);
+            Float frequency = posting == null ? null : posting.get(terms.document.id());
+            if (frequency != null) {
+                double idf = Math.log(1 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5));
+                score += idf * frequency * (K1 + 1) / (frequency + norm);
+            }
+        }
+        return score;
+    }
+
+    private void add(ColocationDocument document) {
+        Map<String, Float> frequencies = new HashMap<>();
+        float length = 0;
+        length += addField(frequencies, document.name(), NAME_BOOST);
+        length += addField(frequencies, document.city(), CITY_BOOST);
+        for (String tag : document.tags()) {
+            length += addField(frequencies, tag, TAG_BOOST);
+        }
+        length += addField(frequencies, document.description(), DESCRIPTION_BOOST);
+        for (String other : Arrays.asList(document.nameOfPublisher(), document.address(), document.postalCode(),
+                document.status(), document.roommatesGenderPreference())) {
+            length += addField(frequencies, other, OTHER_BOOST);
+        }
+        for (String rule : document.rules()) {
+            length += addField(frequencies, rule, OTHER_BOOST);
+        }
+
+        termsById.put(document.id(), new Terms(frequencies.keySet(), length, document));
+        totalLength += length;
+        frequencies.forEach((word, frequency) -> postings.computeIfAbsent(word, key -> new HashMap<>()).put(document.id(), frequency));
+        for (String trigram : document.trigrams()) {
+            trigramPostings.computeIfAbsent(trigram, key -> new HashSet<>()).add(document.id());
+        }
+    }
+
+    private void remove(Long id) {
+        Terms previous = termsById.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= previous.length;
+        for (String word : previous.words) {
+            Map<Long, Float> posting = postings.get(word);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(word);
+                }
+            }
+        }
+        for (String trigram : previous.document.trigrams()) {
+            Set<Long> posting = trigramPostings.get(trigram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    trigramPostings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static float addField(Map<String, Float> frequencies, String value, float boost) {
+        List<String> words = ColocationDocument.words(value);
+        words.forEach(word -> frequencies.merge(word, boost, Float::sum));
+        return words.size() * boost;
+    }
+
+    private static final Comparator<Map.Entry<Long, Double>> RANKING = Map.Entry.<Long, Double>comparingByValue()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    private record Terms(Set<String> words, float length, ColocationDocument document) {
+        boolean visibleIn(SearchScope scope) {
+            return switch (scope) {
+                case ALL -> true;
+                case PUBLIC -> document.isPublic();
+                case NON_PUBLISHED -> !document.published();
+            };
+        }
+    }
+}
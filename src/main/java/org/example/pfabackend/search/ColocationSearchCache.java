@@ -0,0 +1,199 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.dto.ColocationSummaryDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of the listing pages served by {@code getAllColocations}, keyed by normalized search term,
+ * page, size, role class (admin / public) and sort (newest / relevance). Entries expire after
+ * {@code colocation.search.cache.ttl}.
+ * <p>
+ * Invalidation is driven by {@link ColocationIndexer} after the indexes are updated: a write only evicts the
+ * queries whose result set may contain the colocation before or after the change (every page of the query,
+ * since the totals shift). That check only holds for pages matched on the searched words themselves; the other
+ * pages (stemming engine, spelling-corrected retries) are evicted by every write. Content-only changes (images,
+ * reviews) evict the pages showing the colocation.
+ */
+@Component
+public class ColocationSearchCache {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final Map<Key, Entry> entries;
+    // Dernier état connu de chaque colocation, pour savoir à quelles recherches elle appartenait
+    private final Map<Long, ColocationDocument> documents = new HashMap<>();
+    private long generation;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long invalidations;
+
+    public ColocationSearchCache(
+            @Value("${colocation.search.cache.max-entries:1000}") int maxEntries,
+            @Value("${colocation.search.cache.ttl:60s}") Duration ttl) {
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > ColocationSearchCache.this.maxEntries) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Cached page for this query, loaded (outside the lock) and stored on a miss. {@code substring} tells whether
+     * the loader only returns colocations containing the search as is; if not, any write evicts the page.
+     */
+    public Page<ColocationSummaryDTO> get(String search, int page, int size, boolean admin, boolean byRelevance,
+                                   boolean substring, Supplier<Page<ColocationSummaryDTO>> loader) {
+        if (maxEntries <= 0) {
+            return loader.get();
+        }
+        Key key = new Key(normalize(search), page, size, admin, byRelevance, substring);
+        long loadedGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits++;
+                return entry.page;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions++;
+            }
+            misses++;
+            loadedGeneration = generation;
+        }
+
+        Page<ColocationSummaryDTO> result = loader.get();
+
+        synchronized (this) {
+            // Une écriture pendant le chargement peut rendre le résultat obsolète : on ne le garde pas
+            if (loadedGeneration == generation) {
+                entries.put(key, new Entry(result, ids(result), System.nanoTime() + ttlNanos));
+            }
+        }
+        return result;
+    }
+
+    public synchronized void reset(Collection<ColocationDocument> documents) {
+        this.documents.clear();
+        documents.forEach(document -> this.documents.put(document.id(), document));
+        invalidations += entries.size();
+        entries.clear();
+        generation++;
+    }
+
+    public synchronized void saved(ColocationDocument document) {
+        ColocationDocument previous = documents.put(document.id(), document);
+        invalidate(document.id(), previous, document);
+    }
+
+    public synchronized void deleted(Long id) {
+        ColocationDocument previous = documents.remove(id);
+        invalidate(id, previous, null);
+    }
+
+    /**
+     * The colocation content changed without affecting which searches it matches (images, reviews).
+     */
+    public synchronized void contentChanged(Long id) {
+        generation++;
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().ids.contains(id)) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("ttlSeconds", Duration.ofNanos(ttlNanos).toSeconds());
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        long requests = hits + misses;
+        stats.put("hitRate", requests == 0 ? 0.0 : (double) hits / requests);
+        stats.put("evictions", evictions);
+        stats.put("invalidations", invalidations);
+        return stats;
+    }
+
+    private void invalidate(Long id, ColocationDocument previous, ColocationDocument current) {
+        generation++;
+        Set<Query> affected = new HashSet<>();
+        for (Map.Entry<Key, Entry> entry : entries.entrySet()) {
+            Query query = entry.getKey().query();
+            if (entry.getValue().ids.contains(id) || query.mayContain(previous) || query.mayContain(current)) {
+                affected.add(query);
+            }
+        }
+        if (affected.isEmpty()) {
+            return;
+        }
+        Iterator<Key> iterator = entries.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (affected.contains(iterator.next().query())) {
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+
+    private static Set<Long> ids(Page<ColocationSummaryDTO> page) {
+        Set<Long> ids = new HashSet<>();
+        page.getContent().forEach(colocation -> ids.add(colocation.id()));
+        return ids;
+    }
+
+    private static String normalize(String search) {
+        return search == null ? "" : search.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Key(String search, int page, int size, boolean admin, boolean byRelevance, boolean substring) {
+        Query query() {
+            return new Query(search, admin, substring);
+        }
+    }
+
+    private record Query(String search, boolean admin, boolean substring) {
+
+        /**
+         * Conservative for substring matching: true as soon as one word of the search appears in a searchable
+         * field. Without it (stemmed or corrected keywords) the words say nothing, so any colocation may match.
+         */
+        boolean mayContain(ColocationDocument document) {
+            if (document == null || (!admin && !document.isPublic())) {
+                return false;
+            }
+            if (search.isEmpty() || !substring) {
+                return true;
+            }
+            for (String word : search.split(" ")) {
+                if (document.matches(word)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record Entry(Page<ColocationSummaryDTO> page, Set<Long> ids, long expiresAt) {
+    }
+}
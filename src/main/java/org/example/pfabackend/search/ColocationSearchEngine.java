@@ -0,0 +1,31 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.enums.SearchScope;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Keyword search backend for colocations, selected with the {@code colocation.search.engine} property
+ * ({@code trigram}, {@code like} or {@code fulltext}).
+ */
+public interface ColocationSearchEngine extends ColocationChangeListener {
+
+    /**
+     * Returns the page of colocation ids matching the keyword within the given scope.
+     * A blank keyword matches every colocation of the scope, ordered by id DESC.
+     */
+    Page<Long> search(String keyword, SearchScope scope, Pageable pageable);
+
+    /**
+     * Rebuilds the whole index from the database and returns the number of indexed colocations.
+     */
+    int reindex();
+
+    /**
+     * Whether a colocation matches a keyword only when it contains it as is (case aside). Engines that stem or
+     * rewrite the keyword return false, and {@link ColocationSearchCache} then drops their pages on every write.
+     */
+    default boolean matchesSubstrings() {
+        return true;
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.dto.SuggestionDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Autocomplete over the cities, tags and names of the public colocations, backed by a compressed
+ * prefix trie (radix tree).
+ * <p>
+ * Every node keeps the top-N completions of its subtree ranked by number of listings, so a lookup is a walk
+ * down the prefix with no subtree traversal. On a write only the nodes on the path of the changed terms are
+ * re-ranked, by merging the top lists of their children.
+ */
+@Component
+public class ColocationSuggestIndex implements ColocationChangeListener {
+
+    public enum Type { CITY, TAG, NAME }
+
+    private final int topN;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<Long, List<Term>> termsById = new HashMap<>();
+
+    public ColocationSuggestIndex(@Value("${colocation.suggest.top-n:10}") int topN) {
+        this.topN = topN;
+    }
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            root.children.clear();
+            root.completions.clear();
+            root.top = List.of();
+            termsById.clear();
+            documents.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.id());
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Up to {@code limit} completions of the prefix (capped at the configured top-N), most listed first.
+     */
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        String key = normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int i = 0;
+            while (i < key.length()) {
+                Node child = node.children.get(key.charAt(i));
+                if (child == null) {
+                    return List.of();
+                }
+                int common = commonPrefix(child.label, key, i);
+                if (i + common == key.length()) {
+                    // Le préfixe se termine dans (ou à la fin de) l'arête : même sous-arbre
+                    node = child;
+                    break;
+                }
+                if (common < child.label.length()) {
+                    return List.of();
+                }
+                i += common;
+                node = child;
+            }
+            return node.top.stream()
+                    .limit(limit)
+                    .map(completion -> new SuggestionDTO(completion.display, completion.type.name(), completion.count))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(ColocationDocument document) {
+        if (!document.isPublic()) {
+            return;
+        }
+        Set<Term> terms = new LinkedHashSet<>();
+        addTerm(terms, Type.CITY, document.city());
+        document.tags().forEach(tag -> addTerm(terms, Type.TAG, tag));
+        addTerm(terms, Type.NAME, document.name());
+
+        termsById.put(document.id(), List.copyOf(terms));
+        terms.forEach(term -> update(term, 1));
+    }
+
+    private void remove(Long id) {
+        List<Term> terms = termsById.remove(id);
+        if (terms != null) {
+            terms.forEach(term -> update(term, -1));
+        }
+    }
+
+    private static void addTerm(Set<Term> terms, Type type, String value) {
+        String key = normalize(value);
+        if (!key.isEmpty()) {
+            terms.add(new Term(type, key, value.trim()));
+        }
+    }
+
+    private void update(Term term, int delta) {
+        List<Node> path = delta > 0 ? createPath(term.key) : findPath(term.key);
+        if (path == null) {
+            return;
+        }
+        Node node = path.get(path.size() - 1);
+        Completion completion = node.completions.get(term.type);
+        if (completion == null) {
+            if (delta < 0) {
+                return;
+            }
+            completion = new Completion(term.type, term.display);
+            node.completions.put(term.type, completion);
+        }
+        completion.count += delta;
+        if (completion.count <= 0) {
+            node.completions.remove(term.type);
+        }
+
+        // Re-classement du bas vers le haut, en supprimant les feuilles devenues vides
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node current = path.get(i);
+            if (i > 0 && current.completions.isEmpty() && current.children.isEmpty()) {
+                path.get(i - 1).children.remove(current.label.charAt(0));
+                continue;
+            }
+            rank(current);
+        }
+    }
+
+    private void rank(Node node) {
+        List<Completion> candidates = new ArrayList<>(node.completions.values());
+        node.children.values().forEach(child -> candidates.addAll(child.top));
+        candidates.sort(RANKING);
+        node.top = candidates.size() > topN ? List.copyOf(candidates.subList(0, topN)) : List.copyOf(candidates);
+    }
+
+    private List<Node> createPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node(key.substring(i));
+                node.children.put(key.charAt(i), child);
+                path.add(child);
+                return path;
+            }
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // Découpe de l'arête : le nouveau noeud intermédiaire a le même sous-arbre que l'ancien
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children.put(child.label.charAt(0), child);
+                middle.top = child.top;
+                node.children.put(middle.label.charAt(0), middle);
+                child = middle;
+            }
+            i += common;
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null || commonPrefix(child.label, key, i) < child.label.length()) {
+                return null;
+            }
+            i += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static int commonPrefix(String label, String key, int offset) {
+        int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final Comparator<Completion> RANKING = Comparator.<Completion>comparingInt(completion -> completion.count)
+            .reversed()
+            .thenComparing(completion -> completion.display, String.CASE_INSENSITIVE_ORDER);
+
+    private record Term(Type type, String key, String display) {
+        // Un même terme n'est compté qu'une fois par colocation, quelle que soit sa casse
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Term term && type == term.type && key.equals(term.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, key);
+        }
+    }
+
+    private static final class Completion {
+        final Type type;
+        final String display;
+        int count;
+
+        Completion(Type type, String display) {
+            this.type = type;
+            this.display = display;
+        }
+    }
+
+    private static final class Node {
+        String label;
+        final Map<Character, Node> children = new HashMap<>();
+        final Map<Type, Completion> completions = new EnumMap<>(Type.class);
+        List<Completion> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.pfabackend.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dictionary of the words of the colocation text fields, rules and tags, stored in a BK-tree so that the
+ * words within edit distance 1-2 of a misspelled search word are found without comparing it to every term.
+ * Only public colocations (published, not archived) feed it: corrections never reveal the text of a private listing.
+ * <p>
+ * Words are counted per colocation; a word that disappears stays in the tree with a zero count (skipped by
+ * lookups) until the dead words exceed half of the tree, which is then rebuilt.
+ */
+@Component
+public class ColocationTermDictionary implements ColocationChangeListener {
+
+    private static final int MIN_WORD_LENGTH = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> counts = new HashMap<>();
+    private final Map<Long, Set<String>> wordsById = new HashMap<>();
+    private BkNode root;
+    private int treeSize;
+    // Mots de l'arbre dont le compteur est tombé à 0
+    private int deadWords;
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            counts.clear();
+            wordsById.clear();
+            root = null;
+            treeSize = 0;
+            deadWords = 0;
+            documents.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.id());
+            add(document);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The keyword with each unknown word replaced by the closest known word (distance 1 up to 4 letters,
+     * 2 above, ties broken by number of colocations), or {@code null} when nothing could be corrected.
+     */
+    public String correct(String keyword) {
+        if (keyword == null || keyword.isBlank()) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            String[] words = keyword.trim().toLowerCase(Locale.ROOT).split("\\s+");
+            boolean corrected = false;
+            for (int i = 0; i < words.length; i++) {
+                String word = words[i];
+                if (word.length() < MIN_WORD_LENGTH || counts.getOrDefault(word, 0) > 0) {
+                    continue;
+                }
+                String closest = closest(word, word.length() <= 4 ? 1 : 2);
+                if (closest != null) {
+                    words[i] = closest;
+                    corrected = true;
+                }
+            }
+            return corrected ? String.join(" ", words) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private String closest(String word, int maxDistance) {
+        if (root == null) {
+            return null;
+        }
+        String best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        int bestCount = 0;
+
+        Deque<BkNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            BkNode node = stack.pop();
+            int distance = distance(word, node.word);
+            int count = counts.getOrDefault(node.word, 0);
+            if (distance <= maxDistance && count > 0
+                    && (distance < bestDistance || (distance == bestDistance && count > bestCount))) {
+                best = node.word;
+                bestDistance = distance;
+                bestCount = count;
+            }
+            // Inégalité triangulaire : seuls les enfants à distance [d - k, d + k] peuvent contenir des candidats
+            for (Map.Entry<Integer, BkNode> child : node.children.entrySet()) {
+                if (Math.abs(child.getKey() - distance) <= maxDistance) {
+                    stack.push(child.getValue());
+                }
+            }
+        }
+        return best;
+    }
+
+    private void add(ColocationDocument document) {
+        if (!document.isPublic()) {
+            return;
+        }
+        Set<String> words = new HashSet<>();
+        for (String field : document.searchableFields()) {
+            for (String word : ColocationDocument.words(field)) {
+                if (word.length() >= MIN_WORD_LENGTH) {
+                    words.add(word);
+                }
+            }
+        }
+        wordsById.put(document.id(), words);
+        // Les clés de counts sont exactement les mots de l'arbre
+        for (String word : words) {
+            Integer count = counts.get(word);
+            if (count == null) {
+                counts.put(word, 1);
+                insert(word);
+            } else {
+                if (count == 0) {
+                    deadWords--;
+                }
+                counts.put(word, count + 1);
+            }
+        }
+    }
+
+    private void remove(Long id) {
+        Set<String> words = wordsById.remove(id);
+        if (words != null) {
+            for (String word : words) {
+                if (counts.computeIfPresent(word, (key, count) -> count - 1) == 0) {
+                    deadWords++;
+                }
+            }
+        }
+    }
+
+    // Sans effet si le mot est déjà dans l'arbre (distance 0)
+    private void insert(String word) {
+        if (root == null) {
+            root = new BkNode(word);
+            treeSize = 1;
+            return;
+        }
+        BkNode node = root;
+        while (true) {
+            int distance = distance(word, node.word);
+            if (distance == 0) {
+                return;
+            }
+            BkNode child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new BkNode(word));
+                treeSize++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    // Reconstruit l'arbre quand plus de la moitié des noeuds sont des mots qui n'existent plus : une écriture
+    // ne coûte que ses propres mots, le parcours du vocabulaire n'a lieu qu'à la compaction
+    private void compactIfNeeded() {
+        if (treeSize > 64 && deadWords > treeSize / 2) {
+            counts.values().removeIf(count -> count <= 0);
+            root = null;
+            treeSize = 0;
+            deadWords = 0;
+            counts.keySet().forEach(this::insert);
+        }
+    }
+
+    int treeSize() {
+        lock.readLock().lock();
+        try {
+            return treeSize;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Levenshtein distance (two-row dynamic programming).
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int substitution = previous[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j] + 1, current[j - 1] + 1));
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class BkNode {
+        final String word;
+        final Map<Integer, BkNode> children = new HashMap<>();
+
+        BkNode(String word) {
+            this.word = word;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.pfabackend.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.pfabackend.enums.SearchScope;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * PostgreSQL full-text search: a weighted {@code search_vector tsvector} column on {@code colocation}
+ * (GIN indexed), refreshed after each write and queried with {@code websearch_to_tsquery},
+ * results ranked with {@code ts_rank}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "colocation.search.engine", havingValue = "fulltext")
+public class FullTextColocationSearchEngine implements ColocationSearchEngine {
+
+    private final ColocationRepository colocationRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${colocation.search.fulltext-config:simple}")
+    private String config;
+
+    public FullTextColocationSearchEngine(ColocationRepository colocationRepository, JdbcTemplate jdbcTemplate) {
+        this.colocationRepository = colocationRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The column is not mapped on the entity (Hibernate has no tsvector type), so it is created here.
+     */
+    @PostConstruct
+    public void initSchema() {
+        jdbcTemplate.execute("ALTER TABLE colocation ADD COLUMN IF NOT EXISTS search_vector tsvector");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_colocation_search_vector ON colocation USING GIN (search_vector)");
+    }
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> documents) {
+        // Au démarrage, seules les lignes sans search_vector sont indexées (voir reindex() pour tout recalculer)
+        int refreshed = colocationRepository.refreshMissingSearchVectors(config);
+        log.info("Full-text search ready ({} colocations indexed at startup)", refreshed);
+    }
+
+    @Override
+    public Page<Long> search(String keyword, SearchScope scope, Pageable pageable) {
+        if (keyword == null || keyword.trim().isEmpty()) {
+            return colocationRepository.findIdsByScope(scope.name(), pageable);
+        }
+        // L'ordre est donné par ts_rank dans la requête native
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        return colocationRepository.fullTextSearchIds(config, keyword.trim(), scope.name(), unsorted);
+    }
+
+    @Override
+    public boolean matchesSubstrings() {
+        // Racinisation : "studios" trouve "studio"
+        return false;
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        colocationRepository.refreshSearchVector(config, document.id());
+    }
+
+    @Override
+    public void colocationsSaved(Collection<ColocationDocument> documents) {
+        // Un seul UPDATE pour tout le paquet
+        if (!documents.isEmpty()) {
+            colocationRepository.refreshSearchVectors(config, documents.stream().map(ColocationDocument::id).toList());
+        }
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        // La ligne et son search_vector sont supprimés ensemble
+    }
+
+    @Override
+    public int reindex() {
+        return colocationRepository.refreshAllSearchVectors(config);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.enums.SearchScope;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Original {@code LOWER(...) LIKE '%keyword%'} JPQL queries, kept as a baseline to compare latencies.
+ */
+@Component
+@ConditionalOnProperty(name = "colocation.search.engine", havingValue = "like")
+public class LikeColocationSearchEngine implements ColocationSearchEngine {
+
+    private final ColocationRepository colocationRepository;
+
+    public LikeColocationSearchEngine(ColocationRepository colocationRepository) {
+        this.colocationRepository = colocationRepository;
+    }
+
+    @Override
+    public Page<Long> search(String keyword, SearchScope scope, Pageable pageable) {
+        boolean blank = keyword == null || keyword.trim().isEmpty();
+        Page<Colocation> result = switch (scope) {
+            case ALL -> blank
+                    ? colocationRepository.findAll(pageable)
+                    : colocationRepository.search(keyword, pageable);
+            case PUBLIC -> blank
+                    ? colocationRepository.findByIsPublishedTrueAndIsArchivedFalse(pageable)
+                    : colocationRepository.searchPublic(keyword, pageable);
+            case NON_PUBLISHED -> blank
+                    ? colocationRepository.findNonPublishedColocations(pageable)
+                    : colocationRepository.searchNonPublished(keyword, pageable);
+        };
+        return result.map(Colocation::getId);
+    }
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> documents) {
+        // Rien à maintenir : les requêtes lisent directement les tables
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        // Rien à maintenir
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        // Rien à maintenir
+    }
+
+    @Override
+    public int reindex() {
+        return 0;
+    }
+}
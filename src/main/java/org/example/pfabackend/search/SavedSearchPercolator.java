@@ -0,0 +1,184 @@
+package org.example.pfabackend.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.pfabackend.entities.SavedSearch;
+import org.example.pfabackend.enums.Amenity;
+import org.example.pfabackend.repositories.SavedSearchRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Reverse index of the saved searches: instead of running every saved search against the catalogue, a
+ * published colocation is matched against the saved searches.
+ * <p>
+ * Each saved search is filed under one anchor the colocation must contain to match it: a trigram of its
+ * keyword, else its city. Percolating a colocation only verifies the searches filed under its own trigrams
+ * and city (plus the few searches without keyword nor city).
+ */
+@Slf4j
+@Component
+public class SavedSearchPercolator {
+
+    private final SavedSearchRepository savedSearchRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Query> queries = new HashMap<>();
+    private final Map<String, Set<Query>> byTrigram = new HashMap<>();
+    private final Map<String, Set<Query>> byCity = new HashMap<>();
+    private final Set<Query> unanchored = new HashSet<>();
+
+    public SavedSearchPercolator(SavedSearchRepository savedSearchRepository) {
+        this.savedSearchRepository = savedSearchRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        List<SavedSearch> savedSearches = savedSearchRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            queries.clear();
+            byTrigram.clear();
+            byCity.clear();
+            unanchored.clear();
+            savedSearches.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("{} saved searches loaded", savedSearches.size());
+    }
+
+    public void register(SavedSearch savedSearch) {
+        lock.writeLock().lock();
+        try {
+            remove(savedSearch.getId());
+            add(savedSearch);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void unregister(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Names of the saved searches matched by the colocation, per user. Empty unless the colocation is public.
+     */
+    public Map<String, List<String>> percolate(ColocationDocument document) {
+        if (!document.isPublic()) {
+            return Map.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Query> candidates = new HashSet<>(unanchored);
+            for (String trigram : document.trigrams()) {
+                candidates.addAll(byTrigram.getOrDefault(trigram, Set.of()));
+            }
+            if (document.city() != null) {
+                candidates.addAll(byCity.getOrDefault(normalize(document.city()), Set.of()));
+            }
+
+            Map<String, List<String>> matches = new HashMap<>();
+            int amenities = Amenity.mask(document.amenities());
+            for (Query query : candidates) {
+                if (query.matches(document, amenities)) {
+                    matches.computeIfAbsent(query.userId, userId -> new ArrayList<>()).add(query.name);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(SavedSearch savedSearch) {
+        Query query = new Query(
+                savedSearch.getId(),
+                savedSearch.getUserId(),
+                label(savedSearch),
+                normalize(savedSearch.getKeyword()),
+                normalize(savedSearch.getCity()),
+                savedSearch.getMinPrice(),
+                savedSearch.getMaxPrice(),
+                savedSearch.getAmenities() != null ? savedSearch.getAmenities() : 0
+        );
+        queries.put(query.id, query);
+        anchor(query).add(query);
+    }
+
+    private void remove(Long id) {
+        Query previous = queries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        if (previous.trigram() != null) {
+            removeFrom(byTrigram, previous.trigram(), previous);
+        } else if (previous.city != null) {
+            removeFrom(byCity, previous.city, previous);
+        } else {
+            unanchored.remove(previous);
+        }
+    }
+
+    private Set<Query> anchor(Query query) {
+        if (query.trigram() != null) {
+            return byTrigram.computeIfAbsent(query.trigram(), key -> new HashSet<>());
+        }
+        if (query.city != null) {
+            return byCity.computeIfAbsent(query.city, key -> new HashSet<>());
+        }
+        return unanchored;
+    }
+
+    private static void removeFrom(Map<String, Set<Query>> index, String key, Query query) {
+        Set<Query> anchored = index.get(key);
+        if (anchored != null) {
+            anchored.remove(query);
+            if (anchored.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    // Nom affiché dans la notification : nom, sinon mot-clé, sinon ville
+    private static String label(SavedSearch savedSearch) {
+        for (String candidate : Arrays.asList(savedSearch.getName(), savedSearch.getKeyword(), savedSearch.getCity())) {
+            if (candidate != null && !candidate.isBlank()) {
+                return candidate.trim();
+            }
+        }
+        return "Saved search #" + savedSearch.getId();
+    }
+
+    private static String normalize(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Query(Long id, String userId, String name, String keyword, String city,
+                         Double minPrice, Double maxPrice, int amenities) {
+
+        // Toute colocation correspondant au mot-clé contient son premier trigramme
+        String trigram() {
+            return keyword != null && keyword.length() >= ColocationDocument.GRAM ? keyword.substring(0, ColocationDocument.GRAM) : null;
+        }
+
+        boolean matches(ColocationDocument document, int documentAmenities) {
+            Double price = document.price();
+            return (keyword == null || document.matches(keyword))
+                    && (city == null || city.equals(normalize(document.city())))
+                    && (minPrice == null || (price != null && price >= minPrice))
+                    && (maxPrice == null || (price != null && price <= maxPrice))
+                    && (documentAmenities & amenities) == amenities;
+        }
+    }
+}
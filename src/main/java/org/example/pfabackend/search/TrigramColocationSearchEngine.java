@@ -0,0 +1,172 @@
+package org.example.pfabackend.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.pfabackend.enums.SearchScope;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over the colocation keyword fields.
+ * <p>
+ * Each trigram points to the bitset of colocation ids containing it; a keyword query intersects the bitsets
+ * of its trigrams with the visibility bitset of the requested scope, then verifies the few remaining
+ * candidates with a plain substring match. Results are ordered by id DESC like the repository queries.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "colocation.search.engine", havingValue = "trigram", matchIfMissing = true)
+public class TrigramColocationSearchEngine implements ColocationSearchEngine {
+
+
+    private final ColocationRepository colocationRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, ColocationDocument> documents = new HashMap<>();
+    private final Map<String, BitSet> postings = new HashMap<>();
+    private final BitSet all = new BitSet();
+    private final BitSet published = new BitSet();
+    private final BitSet archived = new BitSet();
+
+    public TrigramColocationSearchEngine(ColocationRepository colocationRepository) {
+        this.colocationRepository = colocationRepository;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public int reindex() {
+        List<ColocationDocument> documents = colocationRepository.findAll().stream()
+                .map(ColocationDocument::from)
+                .toList();
+        rebuild(documents);
+        return documents.size();
+    }
+
+    @Override
+    public void rebuild(Collection<ColocationDocument> newDocuments) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+            all.clear();
+            published.clear();
+            archived.clear();
+            newDocuments.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Colocation search index built with {} documents and {} trigrams", newDocuments.size(), postings.size());
+    }
+
+    @Override
+    public void colocationSaved(ColocationDocument document) {
+        lock.writeLock().lock();
+        try {
+            remove(document.id());
+            add(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void colocationDeleted(Long id) {
+        lock.writeLock().lock();
+        try {
+            remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Long> search(String keyword, SearchScope scope, Pageable pageable) {
+        String needle = keyword == null ? "" : keyword.trim().toLowerCase(Locale.ROOT);
+
+        lock.readLock().lock();
+        try {
+            BitSet candidates = visible(scope);
+            if (needle.length() >= ColocationDocument.GRAM) {
+                for (String trigram : ColocationDocument.trigrams(needle)) {
+                    BitSet posting = postings.get(trigram);
+                    if (posting == null) {
+                        return Page.empty(pageable);
+                    }
+                    candidates.and(posting);
+                }
+            }
+
+            long offset = pageable.getOffset();
+            int total = 0;
+            List<Long> content = new ArrayList<>(pageable.getPageSize());
+            for (int bit = candidates.length() - 1; bit >= 0; bit = candidates.previousSetBit(bit - 1)) {
+                if (!needle.isEmpty() && !documents.get((long) bit).matches(needle)) {
+                    continue;
+                }
+                if (total >= offset && content.size() < pageable.getPageSize()) {
+                    content.add((long) bit);
+                }
+                total++;
+            }
+            return new PageImpl<>(content, pageable, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet visible(SearchScope scope) {
+        BitSet bits = (BitSet) all.clone();
+        switch (scope) {
+            case PUBLIC -> {
+                bits.and(published);
+                bits.andNot(archived);
+            }
+            case NON_PUBLISHED -> bits.andNot(published);
+            case ALL -> { }
+        }
+        return bits;
+    }
+
+    private void add(ColocationDocument document) {
+        int bit = bitOf(document.id());
+        documents.put(document.id(), document);
+        all.set(bit);
+        published.set(bit, document.published());
+        archived.set(bit, document.archived());
+        for (String trigram : document.trigrams()) {
+            postings.computeIfAbsent(trigram, key -> new BitSet()).set(bit);
+        }
+    }
+
+    private void remove(Long id) {
+        ColocationDocument previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        int bit = bitOf(id);
+        all.clear(bit);
+        published.clear(bit);
+        archived.clear(bit);
+        for (String trigram : previous.trigrams()) {
+            BitSet posting = postings.get(trigram);
+            if (posting != null) {
+                posting.clear(bit);
+                if (posting.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    private static int bitOf(Long id) {
+        return Math.toIntExact(id);
+    }
+}
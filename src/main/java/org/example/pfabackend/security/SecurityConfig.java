@@ -50,11 +50,15 @@ public class SecurityConfig {
 
                         // Role-based access control
                         .requestMatchers(HttpMethod.GET, "/api/admin/**").hasRole(ADMIN)
+                        .requestMatchers("/api/admin/**").hasRole(ADMIN) // Admin maintenance commands (reindex, ...)
                         .requestMatchers(HttpMethod.GET, "/api/user/**").hasRole(USER)
                         .requestMatchers(HttpMethod.GET, "/api/coloc/**").hasRole(COLOCATAIRE)
                         .requestMatchers(HttpMethod.GET, "/api/coloc-and-user/**").hasAnyRole(COLOCATAIRE, USER)
-                        .requestMatchers(HttpMethod.GET, "/api/colocations/**").permitAll() // GET allowed for COLOCATAIRE, ADMIN, USER
+                        // Avant le permitAll des GET : la première règle qui correspond s'applique
                         .requestMatchers(HttpMethod.GET, "/api/colocations/non-published/**").hasRole(ADMIN)
+                        .requestMatchers(HttpMethod.GET, "/api/colocations/**").permitAll() // GET allowed for COLOCATAIRE, ADMIN, USER
+                        // Publication = modération : rend l'annonce publique et attribue le rôle colocataire au publieur
+                        .requestMatchers(HttpMethod.PATCH, "/api/colocations/*/publish").hasRole(ADMIN)
                         .requestMatchers(HttpMethod.POST, "/api/colocations/**").hasAnyRole(COLOCATAIRE, ADMIN, USER) // POST allowed for COLOCATAIRE and ADMIN
                         .requestMatchers(HttpMethod.PUT, "/api/colocations/**").hasAnyRole(COLOCATAIRE, ADMIN) // PUT allowed for COLOCATAIRE and ADMIN
                         .requestMatchers(HttpMethod.DELETE, "/api/colocations/**").hasAnyRole(COLOCATAIRE, ADMIN) // DELETE allowed for COLOCATAIRE and ADMIN
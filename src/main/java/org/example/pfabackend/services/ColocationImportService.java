@@ -0,0 +1,20 @@
+package org.example.pfabackend.services;
+
+import org.example.pfabackend.dto.ColocationImportReportDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ColocationImportService {
+
+    /**
+     * Imports a JSON array of {@link org.example.pfabackend.dto.CreateColocationDTO}, read as a stream.
+     */
+    ColocationImportReportDTO importJson(InputStream json, String idOfPublisher, String nameOfPublisher) throws IOException;
+
+    /**
+     * Imports a CSV stream whose header row names {@link org.example.pfabackend.dto.CreateColocationDTO}
+     * properties; list cells (rules, tags, imageUrls, assignedUserIds) separate their values with '|'.
+     */
+    ColocationImportReportDTO importCsv(InputStream csv, String idOfPublisher, String nameOfPublisher) throws IOException;
+}
@@ -1,27 +1,52 @@
 package org.example.pfabackend.services;
 
 
+import org.example.pfabackend.dto.BulkModerationResultDTO;
 import org.example.pfabackend.dto.ColocationDTO;
+import org.example.pfabackend.dto.ColocationFacetsDTO;
+import org.example.pfabackend.dto.CursorSliceDTO;
+import org.example.pfabackend.dto.SuggestionDTO;
+import org.example.pfabackend.dto.ColocationFilter;
+import org.example.pfabackend.dto.ColocationSummaryDTO;
+import org.example.pfabackend.dto.ColocationVersion;
 import org.example.pfabackend.dto.CreateColocationDTO;
 import org.example.pfabackend.dto.UpdateColocationDTO;
 import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.enums.ColocationField;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 
 public interface ColocationService {
     //List<ColocationDTO> getAllColocations();
-    Page<ColocationDTO> getAllColocations(String search, int page, int size, Jwt jwt);
+    Page<ColocationSummaryDTO> getAllColocations(String search, int page, int size, boolean byRelevance, Jwt jwt);
     Optional<ColocationDTO> getColocationById(Long id, Jwt jwt);
+    /**
+     * Only the requested fields of the colocation (in the requested order), read by a projection on their
+     * columns; collections are queried only when requested. Same access rules as {@link #getColocationById}.
+     */
+    Optional<Map<String, Object>> getColocationFields(Long id, Set<ColocationField> fields, Jwt jwt);
     ColocationDTO saveColocation(ColocationDTO colocationDTO);
-    ColocationDTO updateColocation(Long id, UpdateColocationDTO colocationDTO);
+    /**
+     * Current version of the colocation, without loading it. Same access rules as {@link #getColocationById}.
+     */
+    Optional<ColocationVersion> getColocationVersion(Long id, Jwt jwt);
+
+    /**
+     * Apply the update if the colocation is still at {@code expectedVersion} (no check when null),
+     * otherwise throw an {@link org.springframework.dao.OptimisticLockingFailureException}.
+     */
+    ColocationDTO updateColocation(Long id, UpdateColocationDTO colocationDTO, Long expectedVersion);
     void deleteColocation(Long id);
-    Page<ColocationDTO> getNonPublishedColocations(String search,int page, int size);
+    Page<ColocationSummaryDTO> getNonPublishedColocations(String search,int page, int size);
     /**
      * Update the 'isPublished' status of a colocation
      */
@@ -32,9 +57,20 @@ public interface ColocationService {
      */
     ColocationDTO updateIsArchived(Long id, boolean isArchived);
 
+    /**
+     * Set-based versions of the moderation operations, for up to {@code ColocationRepository.MAX_BULK_IDS}
+     * distinct ids: one transaction, one statement per table whatever the number of ids. Unknown ids are
+     * reported, not rejected; the in-memory indexes are updated once the transaction has committed.
+     */
+    BulkModerationResultDTO bulkUpdateIsPublished(Collection<Long> ids, boolean isPublished);
+
+    BulkModerationResultDTO bulkUpdateIsArchived(Collection<Long> ids, boolean isArchived);
+
+    BulkModerationResultDTO bulkDeleteColocations(Collection<Long> ids);
+
     public Colocation assignUserToColocation(Long colocationId, String userIdToAssign, String currentUserId, boolean isAdmin);
 
-    public Page<Colocation> getOwnColocations(String userId, String keyword, Pageable pageable);
+    public Page<ColocationSummaryDTO> getOwnColocations(String userId, String keyword, int page, int size);
 
     Optional<Colocation> getColocationEntityById(Long id);
 
@@ -43,7 +79,16 @@ public interface ColocationService {
 
     Colocation removeAssignedUserFromColocation(Long colocationId, String userIdToRemove, String currentUserId, boolean isAdmin);
 
-    Page<ColocationDTO> getAssignedColocations(String userId, int page, int size);
+    Page<ColocationSummaryDTO> getAssignedColocations(String userId, int page, int size);
+
+    /**
+     * Keyset-paginated feeds (id DESC): {@code after} is the last id of the previous slice, null for the first one
+     */
+    CursorSliceDTO<ColocationSummaryDTO> getPublicFeed(Long after, int size);
+
+    CursorSliceDTO<ColocationSummaryDTO> getNonPublishedFeed(Long after, int size);
+
+    CursorSliceDTO<ColocationSummaryDTO> getAssignedFeed(String userId, Long after, int size);
 
     Colocation toggleUserAssignment(Long id, String userIdToAssign, String currentUserId, boolean isAdmin);
 
@@ -56,4 +101,45 @@ public interface ColocationService {
     void deleteImageByUrl(Long colocationId, String imageUrl) ;
 
     boolean isOwner(Long colocationId, String userId);
-}
\ No newline at end of file
+
+    /**
+     * Rebuild the search index of the configured engine for all existing colocations
+     */
+    int reindexSearch();
+
+    /**
+     * Hit, miss and eviction counters of the listing search cache
+     */
+    Map<String, Object> getSearchCacheStats();
+
+    /**
+     * Hit, miss and put counters of the Hibernate second-level cache, per region
+     */
+    Map<String, Object> getEntityCacheStats();
+
+    /**
+     * Size, hit and miss counters of the per-user cache of owned and assigned colocations
+     */
+    Map<String, Object> getMembershipCacheStats();
+
+    /**
+     * Passes every colocation to the consumer, in id order, without holding the catalogue in memory.
+     * Returns the number of colocations exported.
+     */
+    long exportColocations(Consumer<ColocationDTO> consumer);
+
+    /**
+     * Facet counts of the public colocations matching the filter (precomputed when the filter is empty)
+     */
+    ColocationFacetsDTO getFacets(ColocationFilter filter);
+
+    /**
+     * Public colocations matching the structured filter (amenities, price, rooms, city, gender preference, availability)
+     */
+    Page<ColocationSummaryDTO> filterColocations(ColocationFilter filter, int page, int size);
+
+    /**
+     * Autocomplete of cities, tags and listing names starting with the prefix, most listed first
+     */
+    List<SuggestionDTO> suggest(String prefix, int limit);
+}
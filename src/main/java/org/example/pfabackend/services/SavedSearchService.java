@@ -0,0 +1,13 @@
+package org.example.pfabackend.services;
+
+import org.example.pfabackend.dto.SavedSearchDTO;
+
+import java.util.List;
+
+public interface SavedSearchService {
+    List<SavedSearchDTO> getSavedSearches(String userId);
+
+    SavedSearchDTO createSavedSearch(String userId, SavedSearchDTO dto);
+
+    void deleteSavedSearch(String userId, Long id);
+}
@@ -0,0 +1,199 @@
+package org.example.pfabackend.services.implementations;
+
+import org.example.pfabackend.dto.CreateColocationDTO;
+
+import java.io.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Reads {@link CreateColocationDTO} rows from a CSV stream (RFC 4180: comma separated, double-quoted cells may
+ * contain commas, quotes and line breaks). The header row names the DTO properties, in any order; list cells
+ * separate their values with '|'. Rows are parsed one at a time, so the input is never held in memory.
+ */
+class ColocationCsvReader implements Iterator<CreateColocationDTO>, Closeable {
+
+    private static final Set<String> COLUMNS = Set.of(
+            "name", "address", "city", "postalCode", "description", "price", "numberOfRooms",
+            "roommatesGenderPreference", "hasWifi", "hasParking", "hasAirConditioning", "isFurnished", "hasBalcony",
+            "hasPrivateBathroom", "maxRoommates", "status", "rules", "tags", "imageUrls",
+            "availableFrom", "isArchived", "isPublished", "assignedUserIds");
+
+    private final Reader reader;
+    private final List<String> header;
+    private List<String> next;
+
+    ColocationCsvReader(Reader reader) throws IOException {
+        this.reader = reader.markSupported() ? reader : new BufferedReader(reader);
+        this.header = readRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("Empty CSV: a header row is required");
+        }
+        for (String column : header) {
+            if (!COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown CSV column '" + column + "'");
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    /**
+     * @throws IllegalArgumentException when a cell cannot be converted (the row is consumed anyway)
+     */
+    @Override
+    public CreateColocationDTO next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<String> cells = next;
+        next = null;
+        if (cells.size() != header.size()) {
+            throw new IllegalArgumentException("Expected " + header.size() + " cells, found " + cells.size());
+        }
+        Map<String, String> row = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String cell = cells.get(i).trim();
+            if (!cell.isEmpty()) {
+                row.put(header.get(i), cell);
+            }
+        }
+        return new CreateColocationDTO(
+                row.get("name"),
+                row.get("address"),
+                row.get("city"),
+                row.get("postalCode"),
+                row.get("description"),
+                number(row, "price", Double::valueOf),
+                number(row, "numberOfRooms", Integer::valueOf),
+                row.get("roommatesGenderPreference"),
+                bool(row, "hasWifi"),
+                bool(row, "hasParking"),
+                bool(row, "hasAirConditioning"),
+                bool(row, "isFurnished"),
+                bool(row, "hasBalcony"),
+                bool(row, "hasPrivateBathroom"),
+                number(row, "maxRoommates", Integer::valueOf),
+                row.get("status"),
+                list(row, "rules"),
+                list(row, "tags"),
+                list(row, "imageUrls"),
+                null,
+                null,
+                date(row, "availableFrom"),
+                null,
+                null,
+                bool(row, "isArchived"),
+                bool(row, "isPublished"),
+                list(row, "assignedUserIds")
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // Un enregistrement (null en fin de flux) ; les lignes vides sont ignorées
+    private List<String> readRecord() throws IOException {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    if (reader.read() == '"') {
+                        cell.append('"');
+                    } else {
+                        reader.reset();
+                        quoted = false;
+                    }
+                } else {
+                    cell.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    reader.mark(1);
+                    if (reader.read() != '\n') {
+                        reader.reset();
+                    }
+                }
+                if (cells.isEmpty() && cell.isEmpty()) {
+                    any = false;
+                    continue;
+                }
+                cells.add(cell.toString());
+                return cells;
+            } else {
+                cell.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    private static <T> T number(Map<String, String> row, String column, Function<String, T> parser) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : parser.apply(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + ": not a number '" + value + "'");
+        }
+    }
+
+    private static Boolean bool(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "1", "yes" -> true;
+            case "false", "0", "no" -> false;
+            default -> throw new IllegalArgumentException(column + ": not a boolean '" + value + "'");
+        };
+    }
+
+    private static LocalDate date(Map<String, String> row, String column) {
+        String value = row.get(column);
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException(column + ": not an ISO date (yyyy-MM-dd) '" + value + "'");
+        }
+    }
+
+    private static List<String> list(Map<String, String> row, String column) {
+        String value = row.get(column);
+        if (value == null) {
+            return null;
+        }
+        return Arrays.stream(value.split("\\|"))
+                .map(String::trim)
+                .filter(item -> !item.isEmpty())
+                .toList();
+    }
+}
@@ -5,8 +5,10 @@ import lombok.RequiredArgsConstructor;
 import org.example.pfabackend.dto.ColocationImageDTO;
 import org.example.pfabackend.entities.Colocation;
 import org.example.pfabackend.entities.ColocationImage;
+import org.example.pfabackend.mappers.ColocationMapper;
 import org.example.pfabackend.repositories.ColocationImageRepository;
 import org.example.pfabackend.repositories.ColocationRepository;
+import org.example.pfabackend.search.ColocationIndexer;
 import org.example.pfabackend.services.ColocationImageService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,12 +24,14 @@ public class ColocationImageServiceImpl implements ColocationImageService {
 
     private final ColocationRepository colocationRepository;
     private final ColocationImageRepository imageRepository;
+    private final ColocationIndexer colocationIndexer;
+    private final ColocationMapper colocationMapper;
 
     @Override
     public List<ColocationImageDTO> getImagesByColocationId(Long colocationId) {
         return imageRepository.findByColocationId(colocationId)
                 .stream()
-                .map(this::toDTO)
+                .map(colocationMapper::toDto)
                 .collect(Collectors.toList());
     }
 
@@ -42,8 +46,9 @@ public class ColocationImageServiceImpl implements ColocationImageService {
 
         colocation.addImage(image);
         colocationRepository.save(colocation); // save parent to persist cascade
+        colocationIndexer.contentChanged(colocationId);
 
-        return toDTO(image);
+        return colocationMapper.toDto(image);
     }
 
     @Override
@@ -56,7 +61,8 @@ public class ColocationImageServiceImpl implements ColocationImageService {
         }
 
         image.setUrl(imageDTO.getUrl());
-        return toDTO(image);
+        colocationIndexer.contentChanged(colocationId);
+        return colocationMapper.toDto(image);
     }
 
     @Override
@@ -78,15 +84,8 @@ public class ColocationImageServiceImpl implements ColocationImageService {
 
         // Supprimer aussi l'image de la base (si tu souhaites vraiment la supprimer)
         imageRepository.delete(image);
+        colocationIndexer.contentChanged(colocationId);
 
         return true; // Suppression réussie
     }
-
-
-    private ColocationImageDTO toDTO(ColocationImage image) {
-        ColocationImageDTO dto = new ColocationImageDTO();
-        dto.setId(image.getId());
-        dto.setUrl(image.getUrl());
-        return dto;
-    }
 }
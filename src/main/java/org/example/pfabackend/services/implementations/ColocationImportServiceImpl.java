@@ -0,0 +1,208 @@
+package org.example.pfabackend.services.implementations;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.pfabackend.dto.ColocationImportReportDTO;
+import org.example.pfabackend.dto.CreateColocationDTO;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.entities.ColocationImage;
+import org.example.pfabackend.enums.Amenity;
+import org.example.pfabackend.repositories.ColocationBatchRepository;
+import org.example.pfabackend.search.ColocationDocument;
+import org.example.pfabackend.search.ColocationIndexer;
+import org.example.pfabackend.services.ColocationImportService;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ColocationImportServiceImpl implements ColocationImportService {
+
+    // Lignes écrites par paquets : une transaction et un batch JDBC par table pour chaque paquet
+    static final int CHUNK_SIZE = 500;
+
+    private final ColocationBatchRepository colocationBatchRepository;
+    private final ColocationIndexer colocationIndexer;
+    private final ColocationMembershipCache membershipCache;
+    private final SavedSearchNotifier savedSearchNotifier;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public ColocationImportReportDTO importJson(InputStream json, String idOfPublisher, String nameOfPublisher) throws IOException {
+        try (MappingIterator<CreateColocationDTO> rows = objectMapper.readerFor(CreateColocationDTO.class).readValues(json)) {
+            return importRows(rows, idOfPublisher, nameOfPublisher);
+        }
+    }
+
+    @Override
+    public ColocationImportReportDTO importCsv(InputStream csv, String idOfPublisher, String nameOfPublisher) throws IOException {
+        try (ColocationCsvReader rows = new ColocationCsvReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            return importRows(rows, idOfPublisher, nameOfPublisher);
+        }
+    }
+
+    private ColocationImportReportDTO importRows(Iterator<CreateColocationDTO> rows, String idOfPublisher, String nameOfPublisher) {
+        List<ColocationImportReportDTO.Row> report = new ArrayList<>();
+        List<Colocation> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<Integer> chunkRows = new ArrayList<>(CHUNK_SIZE);
+        int row = 0;
+        int imported = 0;
+
+        while (true) {
+            try {
+                if (!rows.hasNext()) {
+                    break;
+                }
+            } catch (RuntimeException ex) {
+                // Flux illisible (JSON mal formé...) : les lignes précédentes restent importées
+                report.add(rejected(row + 1, "Unreadable input: " + ex.getMessage()));
+                break;
+            }
+            row++;
+
+            CreateColocationDTO dto;
+            try {
+                dto = rows.next();
+            } catch (RuntimeException ex) {
+                report.add(rejected(row, ex.getMessage()));
+                continue;
+            }
+            List<String> errors = validate(dto);
+            if (!errors.isEmpty()) {
+                report.add(new ColocationImportReportDTO.Row(row, null, errors));
+                continue;
+            }
+
+            chunk.add(toEntity(dto, idOfPublisher, nameOfPublisher));
+            chunkRows.add(row);
+            if (chunk.size() == CHUNK_SIZE) {
+                imported += write(chunk, chunkRows, report);
+            }
+        }
+        imported += write(chunk, chunkRows, report);
+
+        report.sort((a, b) -> Integer.compare(a.row(), b.row()));
+        log.info("Colocation import: {} rows received, {} imported", row, imported);
+        return new ColocationImportReportDTO(row, imported, report.size() - imported, report);
+    }
+
+    private int write(List<Colocation> chunk, List<Integer> chunkRows, List<ColocationImportReportDTO.Row> report) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        int written = 0;
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> colocationBatchRepository.insertAll(chunk));
+            // Index mis à jour une fois pour tout le paquet (un seul UPDATE du search_vector en plein texte)
+            List<ColocationDocument> documents = colocationIndexer.saved(chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                Colocation colocation = chunk.get(i);
+                savedSearchNotifier.published(colocation, documents.get(i));
+                report.add(new ColocationImportReportDTO.Row(chunkRows.get(i), colocation.getId(), List.of()));
+            }
+            List<String> userIds = new ArrayList<>();
+            chunk.forEach(colocation -> userIds.addAll(colocation.getAssignedUserIds()));
+            userIds.add(chunk.get(0).getIdOfPublisher());
+            membershipCache.invalidate(userIds);
+            written = chunk.size();
+        } catch (DataAccessException ex) {
+            // Le paquet entier est annulé
+            String message = "Database error: " + NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            chunkRows.forEach(row -> report.add(rejected(row, message)));
+        }
+        chunk.clear();
+        chunkRows.clear();
+        return written;
+    }
+
+    // Contraintes du DTO, plus celles des colonnes non nulles de la table
+    private List<String> validate(CreateColocationDTO dto) {
+        List<String> errors = new ArrayList<>();
+        validator.validate(dto).forEach(violation -> errors.add(violation.getPropertyPath() + ": " + violation.getMessage()));
+        if (dto.city() == null || dto.city().isBlank()) {
+            errors.add("city: must not be blank");
+        }
+        if (dto.postalCode() == null || dto.postalCode().isBlank()) {
+            errors.add("postalCode: must not be blank");
+        }
+        if (dto.price() == null) {
+            errors.add("price: must not be null");
+        } else if (dto.price() < 0) {
+            errors.add("price: must be greater than or equal to 0");
+        }
+        if (dto.numberOfRooms() != null && dto.numberOfRooms() < 1) {
+            errors.add("numberOfRooms: must be greater than or equal to 1");
+        }
+        // Le nombre de places occupées est déduit des colocataires affectés
+        if (dto.assignedUserIds() != null && dto.maxRoommates() != null
+                && new HashSet<>(dto.assignedUserIds()).size() > dto.maxRoommates()) {
+            errors.add("assignedUserIds: must not exceed maxRoommates (" + dto.maxRoommates() + ")");
+        }
+        errors.sort(null);
+        return errors;
+    }
+
+    private static Colocation toEntity(CreateColocationDTO dto, String idOfPublisher, String nameOfPublisher) {
+        Colocation colocation = new Colocation();
+        colocation.setName(dto.name());
+        colocation.setIdOfPublisher(idOfPublisher);
+        colocation.setNameOfPublisher(nameOfPublisher);
+        colocation.setAddress(dto.address());
+        colocation.setCity(dto.city());
+        colocation.setPostalCode(dto.postalCode());
+        colocation.setDescription(dto.description());
+        colocation.setPrice(dto.price());
+        colocation.setNumberOfRooms(dto.numberOfRooms() != null ? dto.numberOfRooms() : 1);
+        colocation.setRoommatesGenderPreference(dto.roommatesGenderPreference());
+        colocation.setHasWifi(dto.hasWifi());
+        colocation.setHasParking(dto.hasParking());
+        colocation.setHasAirConditioning(dto.hasAirConditioning());
+        colocation.setIsFurnished(dto.isFurnished());
+        colocation.setHasBalcony(dto.hasBalcony());
+        colocation.setHasPrivateBathroom(dto.hasPrivateBathroom());
+        colocation.setAmenities(Amenity.mask(Amenity.of(colocation)));
+        colocation.setMaxRoommates(dto.maxRoommates());
+        colocation.setStatus(dto.status());
+        colocation.setRules(dto.rules());
+        colocation.setTags(dto.tags());
+        colocation.setAvailableFrom(dto.availableFrom());
+        colocation.setCreatedAt(dto.createdAt() != null ? dto.createdAt() : LocalDate.now());
+        colocation.setUpdatedAt(dto.updatedAt() != null ? dto.updatedAt() : LocalDate.now());
+        colocation.setIsArchived(dto.isArchived() != null ? dto.isArchived() : false);
+        colocation.setIsPublished(dto.isPublished() != null ? dto.isPublished() : false);
+        if (dto.assignedUserIds() != null) {
+            colocation.setAssignedUserIds(new ArrayList<>(dto.assignedUserIds()));
+        }
+        if (dto.imageUrls() != null) {
+            for (String url : dto.imageUrls()) {
+                ColocationImage image = new ColocationImage();
+                image.setUrl(url);
+                colocation.addImage(image);
+            }
+        }
+        return colocation;
+    }
+
+    private static ColocationImportReportDTO.Row rejected(int row, String error) {
+        return new ColocationImportReportDTO.Row(row, null, List.of(error));
+    }
+}
@@ -0,0 +1,123 @@
+package org.example.pfabackend.services.implementations;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.example.pfabackend.repositories.ColocationMembershipRepository;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Per-user cache of the colocations a user publishes or is assigned to, used by the visibility checks instead
+ * of a membership query per request. Each entry holds two sorted {@code long[]} (binary search, 8 bytes per id).
+ * <p>
+ * Writes that change ownership or membership call {@link #invalidate} for the users concerned; the entry is
+ * dropped at once and again when the transaction commits, so a concurrent load cannot keep the state before the write.
+ * Entries also expire after {@code colocation.membership-cache.ttl} as a safety net.
+ */
+@Component
+public class ColocationMembershipCache {
+
+    private final ColocationRepository colocationRepository;
+    private final ColocationMembershipRepository membershipRepository;
+    private final Cache<String, Memberships> cache;
+
+    public ColocationMembershipCache(
+            ColocationRepository colocationRepository,
+            ColocationMembershipRepository membershipRepository,
+            @Value("${colocation.membership-cache.max-users:10000}") long maxUsers,
+            @Value("${colocation.membership-cache.ttl:10m}") Duration ttl) {
+        this.colocationRepository = colocationRepository;
+        this.membershipRepository = membershipRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Owner or assigned user: the colocations a non-admin user can read.
+     */
+    public boolean canSee(String userId, Long colocationId) {
+        Memberships memberships = get(userId);
+        return memberships.owns(colocationId) || memberships.isAssigned(colocationId);
+    }
+
+    public boolean isAssigned(String userId, Long colocationId) {
+        return get(userId).isAssigned(colocationId);
+    }
+
+    /**
+     * Ids of the colocations the user is assigned to, ascending.
+     */
+    public long[] assignedIds(String userId) {
+        return get(userId).assigned.clone();
+    }
+
+    public void invalidate(Collection<String> userIds) {
+        List<String> keys = userIds.stream().filter(Objects::nonNull).toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+        cache.invalidateAll(keys);
+        // Dans une transaction, une lecture concurrente peut recharger l'état d'avant l'écriture : nouveau retrait au commit
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.invalidateAll(keys);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> stats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("users", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+
+    private Memberships get(String userId) {
+        return cache.get(userId, this::load);
+    }
+
+    private Memberships load(String userId) {
+        return new Memberships(
+                sorted(colocationRepository.findIdsByIdOfPublisher(userId)),
+                sorted(membershipRepository.findColocationIdsByUserId(userId)));
+    }
+
+    private static long[] sorted(List<Long> ids) {
+        long[] values = ids.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(values);
+        return values;
+    }
+
+    private record Memberships(long[] owned, long[] assigned) {
+
+        boolean owns(Long colocationId) {
+            return colocationId != null && Arrays.binarySearch(owned, colocationId) >= 0;
+        }
+
+        boolean isAssigned(Long colocationId) {
+            return colocationId != null && Arrays.binarySearch(assigned, colocationId) >= 0;
+        }
+    }
+}
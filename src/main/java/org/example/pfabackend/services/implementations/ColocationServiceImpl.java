@@ -2,27 +2,63 @@ package org.example.pfabackend.services.implementations;
 
 import com.cloudinary.Cloudinary;
 import com.cloudinary.utils.ObjectUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
 import jakarta.validation.ValidationException;
 import lombok.RequiredArgsConstructor;
+import org.example.pfabackend.dto.BulkModerationResultDTO;
+import org.example.pfabackend.dto.ColocationFacetsDTO;
+import org.example.pfabackend.dto.ColocationModerationState;
+import org.example.pfabackend.dto.ColocationFilter;
+import org.example.pfabackend.dto.ColocationSummaryDTO;
+import org.example.pfabackend.dto.ColocationVersion;
 import org.example.pfabackend.dto.CreateColocationDTO;
-import org.example.pfabackend.dto.ReviewDTO;
+import org.example.pfabackend.dto.CursorSliceDTO;
+import org.example.pfabackend.dto.SuggestionDTO;
 import org.example.pfabackend.dto.UpdateColocationDTO;
 import org.example.pfabackend.entities.Colocation;
 import org.example.pfabackend.dto.ColocationDTO;
 import org.example.pfabackend.entities.ColocationImage;
-import org.example.pfabackend.entities.Review;
+import org.example.pfabackend.entities.ColocationMembership;
+import org.example.pfabackend.enums.ColocationField;
+import org.example.pfabackend.enums.SearchScope;
 import org.example.pfabackend.exception.ColocationException;
 import org.example.pfabackend.exceptions.ResourceNotFoundException;
+import org.example.pfabackend.mappers.ColocationMapper;
 import org.example.pfabackend.mappers.ReviewMapper;
+import org.example.pfabackend.repositories.ColocationMembershipRepository;
 import org.example.pfabackend.repositories.ColocationRepository;
+import org.example.pfabackend.search.ColocationFacetIndex;
+import org.example.pfabackend.search.ColocationFilterIndex;
+import org.example.pfabackend.search.ColocationDocument;
+import org.example.pfabackend.search.ColocationIndexer;
+import org.example.pfabackend.search.ColocationRelevanceIndex;
+import org.example.pfabackend.search.ColocationSearchCache;
+import org.example.pfabackend.search.ColocationSearchEngine;
+import org.example.pfabackend.search.ColocationSuggestIndex;
+import org.example.pfabackend.search.ColocationTermDictionary;
 import org.example.pfabackend.security.JwtConverter;
 import org.example.pfabackend.services.ColocationService;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.data.domain.*;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -31,64 +67,180 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.example.pfabackend.security.SecurityConfig.ADMIN;
 @Service
 public class ColocationServiceImpl implements ColocationService {
     private final ColocationRepository colocationRepository;
+    private final ColocationMembershipRepository membershipRepository;
+    private final ColocationMembershipCache membershipCache;
     private final JwtConverter jwtConverter;
     private final UserService userService;
     private final Cloudinary cloudinary;
+    private final ColocationSearchEngine searchEngine;
+    private final ColocationIndexer colocationIndexer;
+    private final ColocationFacetIndex facetIndex;
+    private final ColocationFilterIndex filterIndex;
+    private final ColocationSearchCache searchCache;
+    private final ColocationSuggestIndex suggestIndex;
+    private final ColocationTermDictionary termDictionary;
+    private final ColocationRelevanceIndex relevanceIndex;
+    private final SavedSearchNotifier savedSearchNotifier;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EntityManager entityManager;
+    private final ColocationMapper colocationMapper;
+    private final ReviewMapper reviewMapper;
 
 
     @Autowired
     public ColocationServiceImpl(
             ColocationRepository colocationRepository,
+            ColocationMembershipRepository membershipRepository,
+            ColocationMembershipCache membershipCache,
             JwtConverter jwtConverter,
             UserService userService,
-            Cloudinary cloudinary) {
+            Cloudinary cloudinary,
+            ColocationSearchEngine searchEngine,
+            ColocationIndexer colocationIndexer,
+            ColocationFacetIndex facetIndex,
+            ColocationFilterIndex filterIndex,
+            ColocationSearchCache searchCache,
+            ColocationSuggestIndex suggestIndex,
+            ColocationTermDictionary termDictionary,
+            ColocationRelevanceIndex relevanceIndex,
+            SavedSearchNotifier savedSearchNotifier,
+            EntityManagerFactory entityManagerFactory,
+            EntityManager entityManager,
+            ColocationMapper colocationMapper,
+            ReviewMapper reviewMapper) {
         this.colocationRepository = colocationRepository;
+        this.membershipRepository = membershipRepository;
+        this.membershipCache = membershipCache;
         this.jwtConverter = jwtConverter;
         this.userService = userService;
         this.cloudinary = cloudinary;
+        this.searchEngine = searchEngine;
+        this.colocationIndexer = colocationIndexer;
+        this.facetIndex = facetIndex;
+        this.filterIndex = filterIndex;
+        this.searchCache = searchCache;
+        this.suggestIndex = suggestIndex;
+        this.termDictionary = termDictionary;
+        this.relevanceIndex = relevanceIndex;
+        this.savedSearchNotifier = savedSearchNotifier;
+        this.entityManagerFactory = entityManagerFactory;
+        this.entityManager = entityManager;
+        this.colocationMapper = colocationMapper;
+        this.reviewMapper = reviewMapper;
     }
     @Override
-    public Page<ColocationDTO> getAllColocations(String search, int page, int size, Jwt jwt) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+    public Page<ColocationSummaryDTO> getAllColocations(String search, int page, int size, boolean byRelevance, Jwt jwt) {
         boolean isAdmin = jwt != null && jwtConverter.hasRole(jwt, ADMIN);
 
-        Page<Colocation> result;
-
-        if (isAdmin) {
-            result = (search == null || search.trim().isEmpty())
-                    ? colocationRepository.findAll(pageable)
-                    : colocationRepository.search(search, pageable);
-        } else {
-            result = (search == null || search.trim().isEmpty())
-                    ? colocationRepository.findByIsPublishedTrueAndIsArchivedFalse(pageable)
-                    : colocationRepository.searchPublic(search, pageable);
+        Page<ColocationSummaryDTO> result = cachedSearch(search, page, size, isAdmin, byRelevance, false);
+        if (result.getTotalElements() == 0) {
+            // Aucun résultat : nouvel essai avec les mots mal orthographiés corrigés (distance d'édition 1 ou 2)
+            String corrected = termDictionary.correct(search);
+            if (corrected != null) {
+                result = cachedSearch(corrected, page, size, isAdmin, byRelevance, true);
+            }
         }
+        return result;
+    }
+
+    private Page<ColocationSummaryDTO> cachedSearch(String search, int page, int size, boolean isAdmin, boolean byRelevance,
+                                                    boolean corrected) {
+        SearchScope scope = isAdmin ? SearchScope.ALL : SearchScope.PUBLIC;
+        boolean ranked = byRelevance && search != null && !search.isBlank();
+        // L'index de pertinence cherche la sous-chaîne quel que soit le moteur configuré
+        boolean substring = !corrected && (ranked || searchEngine.matchesSubstrings());
+
+        return searchCache.get(search, page, size, isAdmin, ranked, substring, () -> {
+            if (ranked) {
+                return loadSummaries(relevanceIndex.search(search, scope, PageRequest.of(page, size)));
+            }
+            // Recherche et filtrage de visibilité délégués au moteur configuré (colocation.search.engine)
+            Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "id"));
+            return loadSummaries(searchEngine.search(search, scope, pageable));
+        });
+    }
 
-        return result.map(this::convertToDTO);
+    /**
+     * Load the summaries of a page of ids in one query, keeping the order of the ids.
+     */
+    private Page<ColocationSummaryDTO> loadSummaries(Page<Long> ids) {
+        return new PageImpl<>(summaries(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    private List<ColocationSummaryDTO> summaries(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ColocationSummaryDTO> byId = colocationRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ColocationSummaryDTO::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
     public Optional<ColocationDTO> getColocationById(Long id, Jwt jwt) {
         boolean isAdmin = jwt != null && jwtConverter.hasRole(jwt, ADMIN);
-        assert jwt != null;
-        String userId = jwt.getClaimAsString("sub");
-
-        System.out.println("Gerrrrrr");
-        System.out.println(isAdmin);
-        Optional<Colocation> colocation = isAdmin
-                ? colocationRepository.findById(id)
-                : Optional.ofNullable(colocationRepository
-                .getByIdVisibleToUser(id, userId)
-                .orElseThrow(() -> new AccessDeniedException("Vous n'avez pas accès à cette colocation.")));
+
+        // Visibilité lue dans le cache des appartenances, puis entité servie par le cache de second niveau
+        if (!isAdmin && (jwt == null || !membershipCache.canSee(jwt.getClaimAsString("sub"), id))) {
+            throw new AccessDeniedException("Vous n'avez pas accès à cette colocation.");
+        }
+        Optional<Colocation> colocation = colocationRepository.findById(id);
 
 
-        return colocation.map(this::convertToDTO);
+        return colocation.map(colocationMapper::toDto);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> getColocationFields(Long id, Set<ColocationField> fields, Jwt jwt) {
+        boolean isAdmin = jwt != null && jwtConverter.hasRole(jwt, ADMIN);
+
+        // Projection sur les seules colonnes des champs demandés (l'id sert à vérifier l'existence)
+        Set<String> attributes = new LinkedHashSet<>(List.of("id"));
+        fields.forEach(field -> attributes.addAll(field.attributes()));
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Colocation> root = query.from(Colocation.class);
+        query.multiselect(attributes.stream().<Selection<?>>map(attribute -> root.get(attribute).alias(attribute)).toList());
+        query.where(cb.equal(root.get("id"), id));
+        if (!isAdmin && (jwt == null || !membershipCache.canSee(jwt.getClaimAsString("sub"), id))) {
+            throw new AccessDeniedException("Vous n'avez pas accès à cette colocation.");
+        }
+
+        List<Tuple> rows = entityManager.createQuery(query).getResultList();
+        if (rows.isEmpty()) {
+            if (!isAdmin) {
+                throw new AccessDeniedException("Vous n'avez pas accès à cette colocation.");
+            }
+            return Optional.empty();
+        }
+        Tuple row = rows.get(0);
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ColocationField field : fields) {
+            values.put(field.param(), switch (field) {
+                case AVERAGE_RATING -> Colocation.averageRating(row.get("ratingSum", Long.class), row.get("ratingCount", Long.class));
+                case RULES -> colocationRepository.findRulesById(id);
+                case TAGS -> colocationRepository.findTagsById(id);
+                case IMAGE_URLS -> colocationRepository.findImageUrlsById(id);
+                case REVIEWS -> colocationRepository.findReviewsById(id);
+                case ASSIGNED_USER_IDS -> membershipRepository.findUserIdsByColocationId(id);
+                default -> row.get(field.attributes().get(0));
+            });
+        }
+        return Optional.of(values);
     }
 
     @Override
@@ -104,9 +256,11 @@ public class ColocationServiceImpl implements ColocationService {
 
             // Sauvegarder l'entité dans la base de données
             Colocation savedColocation = colocationRepository.save(colocation);
+            membersChanged(savedColocation);
+            savedSearchNotifier.published(savedColocation, colocationIndexer.saved(savedColocation));
 
             // Convertir l'entité sauvegardée en DTO
-            return convertToDTO(savedColocation);
+            return colocationMapper.toDto(savedColocation);
 
         } catch (IllegalArgumentException ex) {
             // Logique pour gérer les erreurs liées aux arguments invalides
@@ -124,9 +278,25 @@ public class ColocationServiceImpl implements ColocationService {
     }
 
     @Override
-    public ColocationDTO updateColocation(Long id, UpdateColocationDTO dto) {
+    public Optional<ColocationVersion> getColocationVersion(Long id, Jwt jwt) {
+        if (jwt != null && jwtConverter.hasRole(jwt, ADMIN)) {
+            return colocationRepository.findVersionById(id);
+        }
+        if (jwt == null || !membershipCache.canSee(jwt.getClaimAsString("sub"), id)) {
+            throw new AccessDeniedException("Vous n'avez pas accès à cette colocation.");
+        }
+        return Optional.of(colocationRepository.findVersionById(id)
+                .orElseThrow(() -> new AccessDeniedException("Vous n'avez pas accès à cette colocation.")));
+    }
+
+    @Override
+    public ColocationDTO updateColocation(Long id, UpdateColocationDTO dto, Long expectedVersion) {
         Colocation colocation = colocationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Colocation with ID " + id + " not found"));
+        // Modifiée depuis la lecture du client ; une écriture concurrente après ce point est rejetée par @Version
+        if (expectedVersion != null && !expectedVersion.equals(colocation.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Colocation.class, id);
+        }
 
         if (dto.name() != null) colocation.setName(dto.name());
         if (dto.description() != null) colocation.setDescription(dto.description());
@@ -143,20 +313,21 @@ public class ColocationServiceImpl implements ColocationService {
         if (dto.hasBalcony() != null) colocation.setHasBalcony(dto.hasBalcony());
         if (dto.hasPrivateBathroom() != null) colocation.setHasPrivateBathroom(dto.hasPrivateBathroom());
         if (dto.maxRoommates() != null) colocation.setMaxRoommates(dto.maxRoommates());
-        if (dto.currentRoommates() != null) colocation.setCurrentRoommates(dto.currentRoommates());
         if (dto.status() != null) colocation.setStatus(dto.status());
         if (dto.rules() != null) colocation.setRules(dto.rules());
         if (dto.tags() != null) colocation.setTags(dto.tags());
         if (dto.imageUrls() != null) imageUpdate(dto, colocation);
-        if (dto.averageRating() != null) colocation.setAverageRating(dto.averageRating());
+        // averageRating est déduit de ratingSum / ratingCount : ignoré
         if (dto.reviews() != null)
-            colocation.setReviews(dto.reviews().stream().map(ReviewMapper::toEntity).toList());
+            colocation.setReviews(dto.reviews().stream().map(reviewMapper::toEntity).toList());
         if (dto.availableFrom() != null) colocation.setAvailableFrom(dto.availableFrom());
         if (dto.updatedAt() != null) colocation.setUpdatedAt(dto.updatedAt());
         if (dto.isArchived() != null) colocation.setIsArchived(dto.isArchived());
         if (dto.isPublished() != null) colocation.setIsPublished(dto.isPublished());
 
-        return convertToDTO(colocationRepository.save(colocation));
+        Colocation saved = colocationRepository.save(colocation);
+        colocationIndexer.saved(saved);
+        return colocationMapper.toDto(saved);
     }
     public static void imageUpdate(UpdateColocationDTO colocationDTO, Colocation colocation) {
         if (colocationDTO.imageUrls() != null) {
@@ -186,69 +357,15 @@ public class ColocationServiceImpl implements ColocationService {
     }
 
 
-
-
-    public static Review toEntity(ReviewDTO dto) {
-        return ReviewMapper.toEntity(dto);
-    }
-
-
     @Override
     public void deleteColocation(Long id) {
-        if (!colocationRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Colocation with ID " + id + " not found");
-        }
-        colocationRepository.deleteById(id);
-    }
-
-    // Convert Colocation Entity to ColocationDTO
-    private ColocationDTO convertToDTO(Colocation colocation) {
-        List<String> imageUrls = colocation.getImages().stream()
-                .map(ColocationImage::getUrl)
-                .toList();
-
-        return new ColocationDTO(
-                colocation.getId(),
-                colocation.getName(),
-                colocation.getIdOfPublisher(),
-                colocation.getNameOfPublisher(),
-                colocation.getAddress(),
-                colocation.getCity(),
-                colocation.getPostalCode(),
-                colocation.getDescription(),
-                colocation.getPrice(),
-                colocation.getNumberOfRooms(), // ✅ Corrigé ici
-                colocation.getRoommatesGenderPreference(),
-                colocation.getHasWifi(),
-                colocation.getHasParking(),
-                colocation.getHasAirConditioning(),
-                colocation.getIsFurnished(),
-                colocation.getHasBalcony(),
-                colocation.getHasPrivateBathroom(),
-                colocation.getMaxRoommates(),
-                colocation.getCurrentRoommates(),
-                colocation.getStatus(),
-                colocation.getRules(),
-                colocation.getTags(),
-                imageUrls,
-                colocation.getAverageRating(),
-                colocation.getReviews() != null
-                        ? colocation.getReviews().stream().map(review -> new ReviewDTO(
-                        review.getId(),
-                        review.getReviewerId(),
-                        review.getReviewerName(),
-                        review.getRating(),
-                        review.getComment(),
-                        review.getCreatedAt()
-                )).toList()
-                        : List.of(),
-                colocation.getAvailableFrom(), // ✅ Maintenant à la bonne place
-                colocation.getCreatedAt(),
-                colocation.getUpdatedAt(),
-                colocation.getIsArchived(),
-                colocation.getIsPublished(),
-                colocation.getAssignedUserIds()
-        );
+        Colocation colocation = colocationRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Colocation with ID " + id + " not found"));
+        List<String> userIds = new ArrayList<>(membershipRepository.findUserIdsByColocationId(id));
+        userIds.add(colocation.getIdOfPublisher());
+        colocationRepository.delete(colocation);
+        membershipCache.invalidate(userIds);
+        colocationIndexer.deleted(id);
     }
 
     public Colocation convertToEntity(CreateColocationDTO dto) {
@@ -269,7 +386,6 @@ public class ColocationServiceImpl implements ColocationService {
         colocation.setHasBalcony(dto.hasBalcony());
         colocation.setHasPrivateBathroom(dto.hasPrivateBathroom());
         colocation.setMaxRoommates(dto.maxRoommates());
-        colocation.setCurrentRoommates(dto.currentRoommates());
         colocation.setStatus(dto.status());
         colocation.setRules(dto.rules());
         colocation.setTags(dto.tags());
@@ -321,7 +437,6 @@ public class ColocationServiceImpl implements ColocationService {
         colocation.setHasBalcony(dto.hasBalcony());
         colocation.setHasPrivateBathroom(dto.hasPrivateBathroom());
         colocation.setMaxRoommates(dto.maxRoommates());
-        colocation.setCurrentRoommates(dto.currentRoommates());
         colocation.setStatus(dto.status());
         colocation.setRules(dto.rules());
         colocation.setTags(dto.tags());
@@ -341,10 +456,17 @@ public class ColocationServiceImpl implements ColocationService {
         Colocation colocation = colocationRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Colocation with ID " + id + " not found"));
 
+        boolean wasPublished = Boolean.TRUE.equals(colocation.getIsPublished());
         colocation.setIsPublished(isPublished); // Update the status
 
         // Save and return the updated Colocation as a DTO
-        return convertToDTO(colocationRepository.save(colocation));
+        Colocation saved = colocationRepository.save(colocation);
+        ColocationDocument document = colocationIndexer.saved(saved);
+        // Alertes uniquement à la publication, pas quand une annonce déjà publiée est republiée
+        if (isPublished && !wasPublished) {
+            savedSearchNotifier.published(saved, document);
+        }
+        return colocationMapper.toDto(saved);
     }
 
     /**
@@ -357,10 +479,112 @@ public class ColocationServiceImpl implements ColocationService {
         colocation.setIsArchived(isArchived); // Update the status
 
         // Save and return the updated Colocation as a DTO
-        return convertToDTO(colocationRepository.save(colocation));
+        Colocation saved = colocationRepository.save(colocation);
+        colocationIndexer.saved(saved);
+        return colocationMapper.toDto(saved);
+    }
+
+    @Override
+    @Transactional
+    public BulkModerationResultDTO bulkUpdateIsPublished(Collection<Long> ids, boolean isPublished) {
+        return bulkUpdate(ids, ColocationModerationState::getIsPublished, isPublished,
+                changed -> colocationRepository.updateIsPublished(changed, isPublished), isPublished);
+    }
+
+    @Override
+    @Transactional
+    public BulkModerationResultDTO bulkUpdateIsArchived(Collection<Long> ids, boolean isArchived) {
+        return bulkUpdate(ids, ColocationModerationState::getIsArchived, isArchived,
+                changed -> colocationRepository.updateIsArchived(changed, isArchived), false);
+    }
+
+    @Override
+    @Transactional
+    public BulkModerationResultDTO bulkDeleteColocations(Collection<Long> ids) {
+        Set<Long> requested = bulkIds(ids);
+        List<ColocationModerationState> states = colocationRepository.findModerationStatesByIdIn(requested);
+        List<Long> found = states.stream().map(ColocationModerationState::getId).toList();
+        if (!found.isEmpty()) {
+            List<String> userIds = new ArrayList<>();
+            states.forEach(state -> userIds.add(state.getIdOfPublisher()));
+            membershipRepository.findUserIdsByColocationIdIn(found).forEach(row -> userIds.add((String) row[1]));
+            membershipCache.invalidate(userIds);
+
+            // Entités enfants d'abord : un DELETE par table pour toute la liste
+            colocationRepository.deleteImagesByColocationIdIn(found);
+            colocationRepository.deleteReviewsByColocationIdIn(found);
+            colocationRepository.deleteMembershipsByColocationIdIn(found);
+            colocationRepository.deleteByIdIn(found);
+            afterCommit(() -> found.forEach(colocationIndexer::deleted));
+        }
+        return bulkResult(requested, states, states);
+    }
+
+    // Seules les colocations dont le drapeau change sont mises à jour (nouvelle version) puis réindexées
+    private BulkModerationResultDTO bulkUpdate(Collection<Long> ids, Function<ColocationModerationState, Boolean> flag,
+                                               boolean value, Function<List<Long>, Integer> update,
+                                               boolean notifySavedSearches) {
+        Set<Long> requested = bulkIds(ids);
+        List<ColocationModerationState> states = colocationRepository.findModerationStatesByIdIn(requested);
+        List<ColocationModerationState> changedStates = states.stream()
+                .filter(state -> Boolean.TRUE.equals(flag.apply(state)) != value)
+                .toList();
+        List<Long> changed = changedStates.stream().map(ColocationModerationState::getId).toList();
+        if (!changed.isEmpty()) {
+            update.apply(changed);
+            // Relues après le UPDATE (contexte vidé), collections chargées par lots ; index mis à jour après le commit
+            List<Colocation> colocations = colocationRepository.findAllById(changed);
+            List<ColocationDocument> documents = colocations.stream().map(ColocationDocument::from).toList();
+            afterCommit(() -> {
+                for (int i = 0; i < documents.size(); i++) {
+                    ColocationDocument document = colocationIndexer.saved(documents.get(i));
+                    if (notifySavedSearches) {
+                        savedSearchNotifier.published(colocations.get(i), document);
+                    }
+                }
+            });
+        }
+        return bulkResult(requested, states, changedStates);
+    }
+
+    private static Set<Long> bulkIds(Collection<Long> ids) {
+        Set<Long> distinct = ids == null ? Set.of() : ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (distinct.isEmpty()) {
+            throw new IllegalArgumentException("At least one colocation id is required");
+        }
+        if (distinct.size() > ColocationRepository.MAX_BULK_IDS) {
+            throw new IllegalArgumentException("At most " + ColocationRepository.MAX_BULK_IDS + " colocation ids per request");
+        }
+        return distinct;
+    }
+
+    // Publieurs des seules colocations modifiées : une republication sans effet ne déclenche aucune attribution de rôle
+    private static BulkModerationResultDTO bulkResult(Set<Long> requested, List<ColocationModerationState> found,
+                                                      List<ColocationModerationState> changed) {
+        Set<Long> notFound = new LinkedHashSet<>(requested);
+        found.forEach(state -> notFound.remove(state.getId()));
+        Set<String> publisherIds = new LinkedHashSet<>();
+        changed.forEach(state -> publisherIds.add(state.getIdOfPublisher()));
+        return new BulkModerationResultDTO(requested.size(), changed.size(), List.copyOf(notFound), publisherIds);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
     }
 
     @Override
+    @Transactional
     public Colocation assignUserToColocation(Long colocationId, String userIdToAssign, String currentUserId, boolean isAdmin) {
         Colocation colocation = colocationRepository.findById(colocationId)
                 .orElseThrow(() -> new RuntimeException("Colocation not found"));
@@ -371,11 +595,16 @@ public class ColocationServiceImpl implements ColocationService {
         }
 
         // Affectation
-        colocation.assignUser(userIdToAssign);
-        return colocationRepository.save(colocation);
+        if (membershipRepository.existsByColocationIdAndUserId(colocationId, userIdToAssign)) {
+            throw new IllegalArgumentException("User " + userIdToAssign + " is already assigned to this colocation.");
+        }
+        reserveSeat(colocationId, userIdToAssign);
+        membershipCache.invalidate(List.of(userIdToAssign));
+        return reload(colocationId);
     }
 
     @Override
+    @Transactional
     public Colocation removeAssignedUserFromColocation(Long colocationId, String userIdToRemove, String currentUserId, boolean isAdmin) {
         Colocation colocation = colocationRepository.findById(colocationId)
                 .orElseThrow(() -> new RuntimeException("Colocation not found"));
@@ -386,17 +615,61 @@ public class ColocationServiceImpl implements ColocationService {
         }
 
         // Suppression
-        colocation.removeAssignedUser(userIdToRemove);
-        return colocationRepository.save(colocation);
+        releaseSeat(colocationId, userIdToRemove);
+        membershipCache.invalidate(List.of(userIdToRemove));
+        return reload(colocationId);
+    }
+
+    // Place prise par un UPDATE conditionnel sur current_roommates, puis ligne d'appartenance : l'index unique refuse
+    // un doublon concurrent. Toute erreur annule la transaction, réservation comprise
+    private void reserveSeat(Long colocationId, String userId) {
+        if (colocationRepository.reserveRoommateSlot(colocationId) == 0) {
+            throw new IllegalStateException("Cannot assign more users. Maximum roommates limit reached.");
+        }
+        ColocationMembership membership = new ColocationMembership();
+        membership.setColocation(colocationRepository.getReferenceById(colocationId));
+        membership.setUserId(userId);
+        try {
+            membershipRepository.saveAndFlush(membership);
+        } catch (DataIntegrityViolationException ex) {
+            throw new IllegalArgumentException("User " + userId + " is already assigned to this colocation.");
+        }
+    }
+
+    // Seul le DELETE qui a effectivement retiré la ligne libère la place
+    private void releaseSeat(Long colocationId, String userId) {
+        if (membershipRepository.deleteByColocationIdAndUserId(colocationId, userId) == 0) {
+            throw new IllegalArgumentException("User " + userId + " is not assigned to this colocation.");
+        }
+        colocationRepository.releaseRoommateSlot(colocationId);
+    }
+
+    // Les UPDATE conditionnels vident le contexte de persistance : relecture de l'état enregistré
+    private Colocation reload(Long colocationId) {
+        return colocationRepository.findById(colocationId)
+                .orElseThrow(() -> new RuntimeException("Colocation not found"));
     }
 
     @Override
-    public Page<Colocation> getOwnColocations(String userId, String keyword, Pageable pageable) {
-        Page<Colocation> colocations = colocationRepository.findOwnColocationsByKeyword(userId, keyword, pageable);
+    public Page<ColocationSummaryDTO> getOwnColocations(String userId, String keyword, int page, int size) {
+        // Colocations publiées ou partagées filtrées en base (index publieur et index unique des appartenances) :
+        // pas de liste d'ids liée en paramètre, quel que soit leur nombre
+        Page<ColocationSummaryDTO> colocations = loadSummaries(colocationRepository.findOwnColocationIdsByKeyword(
+                userId, keyword, PageRequest.of(page, size)));
+        if (colocations.isEmpty()) {
+            return colocations;
+        }
+
+        // userIds assignés de toute la page en une requête
+        Map<Long, List<String>> assignedUserIds = new HashMap<>();
+        for (Object[] row : membershipRepository.findUserIdsByColocationIdIn(
+                colocations.map(ColocationSummaryDTO::id).getContent())) {
+            assignedUserIds.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
 
         // Récupérer tous les userIds assignés (évite les appels répétitifs)
-        List<String> allAssignedUserIds = colocations.stream()
-                .flatMap(coloc -> coloc.getAssignedUserIds().stream())
+        List<String> allAssignedUserIds = assignedUserIds.values().stream()
+                .flatMap(List::stream)
                 .distinct()
                 .toList();
 
@@ -408,32 +681,20 @@ public class ColocationServiceImpl implements ColocationService {
                 .collect(Collectors.toMap(user -> (String) user.get("id"), user -> user));
 
         // Injection des infos dans chaque colocation
-        colocations.forEach(coloc -> {
-            List<Map<String, Object>> infos = coloc.getAssignedUserIds().stream()
-                    .map(userInfoById::get)
-                    .filter(Objects::nonNull)
-                    .toList();
-            coloc.setAssignedUserInfos(infos);
-        });
-
-        return colocations;
+        return colocations.map(coloc -> coloc.withAssignedUsers(
+                assignedUserIds.getOrDefault(coloc.id(), List.of()).stream()
+                        .map(userInfoById::get)
+                        .filter(Objects::nonNull)
+                        .toList()));
     }
 
 
 
 
 
-    public Page<ColocationDTO> getNonPublishedColocations(String search, int page, int size) {
+    public Page<ColocationSummaryDTO> getNonPublishedColocations(String search, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        Page<Colocation> colocations;
-
-        if (search == null || search.trim().isEmpty()) {
-            colocations = colocationRepository.findNonPublishedColocations(pageable);
-        } else {
-            colocations = colocationRepository.searchNonPublished(search, pageable);
-        }
-
-        return colocations.map(this::convertToDTO);
+        return loadSummaries(searchEngine.search(search, SearchScope.NON_PUBLISHED, pageable));
     }
 
     @Override
@@ -443,20 +704,48 @@ public class ColocationServiceImpl implements ColocationService {
 
     @Override
     public List<Long> getAssignedColocationIds(String userId) {
-        return colocationRepository.findByAssignedUserIdsContaining(userId)
-                .stream()
-                .map(Colocation::getId)
-                .collect(Collectors.toList());
+        long[] ids = membershipCache.assignedIds(userId);
+        List<Long> newestFirst = new ArrayList<>(ids.length);
+        for (int i = ids.length - 1; i >= 0; i--) {
+            newestFirst.add(ids[i]);
+        }
+        return newestFirst;
     }
 
     @Override
-    public Page<ColocationDTO> getAssignedColocations(String userId, int page, int size) {
+    public Page<ColocationSummaryDTO> getAssignedColocations(String userId, int page, int size) {
         Pageable pageable = PageRequest.of(page, size);
-        return colocationRepository.findByAssignedUserIdsContaining(userId, pageable)
-                .map(this::convertToDTO);
+        return loadSummaries(membershipRepository.findColocationIdsByUserId(userId, pageable));
+    }
+
+    @Override
+    public CursorSliceDTO<ColocationSummaryDTO> getPublicFeed(Long after, int size) {
+        return toCursorSlice(colocationRepository.findPublicIdsBefore(cursor(after), PageRequest.of(0, size)));
+    }
+
+    @Override
+    public CursorSliceDTO<ColocationSummaryDTO> getNonPublishedFeed(Long after, int size) {
+        return toCursorSlice(colocationRepository.findNonPublishedIdsBefore(cursor(after), PageRequest.of(0, size)));
+    }
+
+    @Override
+    public CursorSliceDTO<ColocationSummaryDTO> getAssignedFeed(String userId, Long after, int size) {
+        return toCursorSlice(membershipRepository.findColocationIdsByUserIdBefore(userId, cursor(after), PageRequest.of(0, size)));
+    }
+
+    private static Long cursor(Long after) {
+        return after != null ? after : Long.MAX_VALUE;
+    }
+
+    private CursorSliceDTO<ColocationSummaryDTO> toCursorSlice(Slice<Long> slice) {
+        List<Long> ids = slice.getContent();
+        Long nextCursor = slice.hasNext() && !ids.isEmpty() ? ids.get(ids.size() - 1) : null;
+        List<ColocationSummaryDTO> content = summaries(ids);
+        return new CursorSliceDTO<>(content, content.size(), slice.hasNext(), nextCursor);
     }
 
     @Override
+    @Transactional
     public Colocation toggleUserAssignment(Long colocationId, String userId, String currentUserId, boolean isAdmin) {
         Colocation colocation = colocationRepository.findById(colocationId)
                 .orElseThrow(() -> new RuntimeException("Colocation with ID " + colocationId + " not found."));
@@ -465,13 +754,14 @@ public class ColocationServiceImpl implements ColocationService {
             throw new SecurityException("Only the owner or an admin can assign or unassign users.");
         }
 
-        if (colocation.getAssignedUserIds().contains(userId)) {
-            colocation.removeAssignedUser(userId);
+        if (membershipRepository.existsByColocationIdAndUserId(colocationId, userId)) {
+            releaseSeat(colocationId, userId);
         } else {
-            colocation.assignUser(userId);
+            reserveSeat(colocationId, userId);
         }
 
-        return colocationRepository.save(colocation);
+        membershipCache.invalidate(List.of(userId));
+        return reload(colocationId);
     }
 
     @Override
@@ -497,9 +787,17 @@ public class ColocationServiceImpl implements ColocationService {
         }
 
         Colocation saved = colocationRepository.save(colocation);
-        return convertToDTO(saved);
+        membersChanged(saved);
+        savedSearchNotifier.published(saved, colocationIndexer.saved(saved));
+        return colocationMapper.toDto(saved);
     }
 
+    // Le publieur et les colocataires voient la colocation apparaître ou disparaître
+    private void membersChanged(Colocation colocation) {
+        List<String> userIds = new ArrayList<>(colocation.getAssignedUserIds());
+        userIds.add(colocation.getIdOfPublisher());
+        membershipCache.invalidate(userIds);
+    }
 
     private String saveImageToLocal(MultipartFile image) {
         try {
@@ -541,7 +839,8 @@ public class ColocationServiceImpl implements ColocationService {
         }
 
         Colocation updated = colocationRepository.save(colocation);
-        return convertToDTO(updated);
+        colocationIndexer.contentChanged(colocationId);
+        return colocationMapper.toDto(updated);
     }
 
 
@@ -557,6 +856,7 @@ public class ColocationServiceImpl implements ColocationService {
 
         colocation.getImages().remove(imageToDelete);
         colocationRepository.save(colocation);
+        colocationIndexer.contentChanged(colocationId);
     }
 
     public boolean isOwner(Long colocationId, String userId) {
@@ -566,4 +866,84 @@ public class ColocationServiceImpl implements ColocationService {
         return colocation.getIdOfPublisher().equals(userId);
     }
 
+    @Override
+    public int reindexSearch() {
+        return searchEngine.reindex();
+    }
+
+    @Override
+    public Map<String, Object> getSearchCacheStats() {
+        return searchCache.stats();
+    }
+
+    @Override
+    public Map<String, Object> getMembershipCacheStats() {
+        return membershipCache.stats();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportColocations(Consumer<ColocationDTO> consumer) {
+        // L'export ne passe pas par le cache de second niveau : il le remplirait avec tout le catalogue
+        entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+
+        long exported = 0;
+        List<Colocation> chunk = new ArrayList<>(ColocationRepository.EXPORT_FETCH_SIZE);
+        try (Stream<Colocation> colocations = colocationRepository.streamAll()) {
+            Iterator<Colocation> iterator = colocations.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == ColocationRepository.EXPORT_FETCH_SIZE || !iterator.hasNext()) {
+                    // Collections du paquet chargées par lots (@BatchSize), puis contexte vidé : mémoire constante
+                    chunk.forEach(colocation -> consumer.accept(colocationMapper.toDto(colocation)));
+                    exported += chunk.size();
+                    chunk.clear();
+                    entityManager.clear();
+                }
+            }
+        }
+        return exported;
+    }
+
+    @Override
+    public Map<String, Object> getEntityCacheStats() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        Map<String, Object> regions = new TreeMap<>();
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(name);
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("elements", region.getElementCountInMemory());
+            stats.put("hits", region.getHitCount());
+            stats.put("misses", region.getMissCount());
+            stats.put("puts", region.getPutCount());
+            long requests = region.getHitCount() + region.getMissCount();
+            stats.put("hitRate", requests == 0 ? 0.0 : (double) region.getHitCount() / requests);
+            regions.put(name, stats);
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        stats.put("hits", statistics.getSecondLevelCacheHitCount());
+        stats.put("misses", statistics.getSecondLevelCacheMissCount());
+        stats.put("puts", statistics.getSecondLevelCachePutCount());
+        stats.put("regions", regions);
+        return stats;
+    }
+
+    @Override
+    public ColocationFacetsDTO getFacets(ColocationFilter filter) {
+        return facetIndex.facets(filter);
+    }
+
+    @Override
+    public Page<ColocationSummaryDTO> filterColocations(ColocationFilter filter, int page, int size) {
+        return loadSummaries(filterIndex.filter(filter, PageRequest.of(page, size)));
+    }
+
+    @Override
+    public List<SuggestionDTO> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, limit);
+    }
+
 }
@@ -5,10 +5,10 @@ import org.example.pfabackend.dto.*;
 import org.example.pfabackend.entities.Colocation;
 import org.example.pfabackend.entities.Expense;
 import org.example.pfabackend.entities.ExpenseShare;
+import org.example.pfabackend.mappers.ExpenseMapper;
 import org.example.pfabackend.repositories.ColocationRepository;
 import org.example.pfabackend.repositories.ExpenseRepository;
 import org.example.pfabackend.services.ExpenseService;
-import org.modelmapper.ModelMapper;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 
@@ -22,7 +22,7 @@ public class ExpenseServiceImpl implements ExpenseService {
 
     private final ExpenseRepository expenseRepository;
     private final ColocationRepository colocationRepository;
-    private final ModelMapper mapper;
+    private final ExpenseMapper expenseMapper;
 
     // Maintainability Issue: Unused private field
     private String unusedConfig = "some-config";
@@ -56,14 +56,14 @@ public class ExpenseServiceImpl implements ExpenseService {
 
         expense.setShares(shares);
         Expense saved = expenseRepository.save(expense);
-        return mapper.map(saved, ExpenseDTO.class);
+        return expenseMapper.toDto(saved);
     }
 
 
     @Override
     public List<ExpenseDTO> getExpensesForColocation(Long colocationId) {
         return expenseRepository.findByColocationId(colocationId)
-                .stream().map(this::toDto)
+                .stream().map(expenseMapper::toDto)
                 .collect(Collectors.toList());
 
     }
@@ -173,7 +173,7 @@ public class ExpenseServiceImpl implements ExpenseService {
         System.out.println("Updating expense: " + expenseId);
 
         Expense updated = expenseRepository.save(expense);
-        return mapper.map(updated, ExpenseDTO.class);
+        return expenseMapper.toDto(updated);
     }
 
 
@@ -226,7 +226,7 @@ public class ExpenseServiceImpl implements ExpenseService {
         System.out.println("Updated shares for expense: " + expenseId); // Maintainability Issue
 
         Expense saved = expenseRepository.save(expense);
-        return mapper.map(saved, ExpenseDTO.class);
+        return expenseMapper.toDto(saved);
     }
 
 
@@ -262,7 +262,7 @@ public class ExpenseServiceImpl implements ExpenseService {
         }
 
         List<ExpenseDTO> expenseDTOs = filteredExpenses.stream()
-                .map(expense -> mapper.map(expense, ExpenseDTO.class))
+                .map(expenseMapper::toDto)
                 .toList();
 
         UserExpenseSummaryDTO summary = new UserExpenseSummaryDTO();
@@ -421,41 +421,10 @@ public class ExpenseServiceImpl implements ExpenseService {
     }
 
 
-    // Code Duplication: This method is duplicated as mapToDTO below
-    private ExpenseDTO toDto(Expense expense) {
-        ExpenseDTO dto = new ExpenseDTO();
-        dto.setId(expense.getId());
-        dto.setLabel(expense.getLabel());
-        dto.setTotalAmount(expense.getTotalAmount());
-        dto.setDateLimit(expense.getDateLimit());
-        dto.setDatePaid(expense.getDatePaid());
-        dto.setPaidByUserId(expense.getPaidByUserId());
-        dto.setPaidByUserEmail(expense.getPaidByUserEmail());
-        // Reliability Issue: Potential NullPointerException
-        dto.setColocationId(expense.getColocation().getId());
-
-        List<ExpenseShareDTO> shareDTOs = expense.getShares().stream()
-                .map(this::toDto)
-                .collect(Collectors.toList());
-        dto.setShares(shareDTOs);
-        return dto;
-    }
-
-    private ExpenseShareDTO toDto(ExpenseShare share) {
-        ExpenseShareDTO dto = new ExpenseShareDTO();
-        dto.setUserId(share.getUserId());
-        dto.setUserEmail(share.getUserEmail());
-        dto.setAmount(share.getAmount());
-        dto.setPaid(share.getPaid());
-        dto.setDatePaid(share.getDatePaid());
-        return dto;
-    }
-
-
     public List<ExpenseDTO> getAllExpenses() {
         // Performance Issue: Loading all expenses without pagination
         System.out.println("Getting all expenses"); // Maintainability Issue
-        return expenseRepository.findAll().stream().map(this::mapToDTO).collect(Collectors.toList());
+        return expenseRepository.findAll().stream().map(expenseMapper::toDto).collect(Collectors.toList());
     }
 
     public List<ExpenseDTO> getExpensesForUser(String userId, boolean share) {
@@ -476,44 +445,8 @@ public class ExpenseServiceImpl implements ExpenseService {
         List<Expense> tempList = new ArrayList<>(expenses);
 
         return tempList.stream()
-                .map(this::mapToDTO)
+                .map(expenseMapper::toDto)
                 .collect(Collectors.toList());
     }
 
-
-
-
-
-    // Code Duplication: This method duplicates toDto method above
-    private ExpenseDTO mapToDTO(Expense expense) {
-        ExpenseDTO dto = new ExpenseDTO();
-        dto.setId(expense.getId());
-        dto.setLabel(expense.getLabel());
-        dto.setTotalAmount(expense.getTotalAmount());
-        dto.setDateLimit(expense.getDateLimit());
-        dto.setPaidByUserId(expense.getPaidByUserId());
-        dto.setPaidByUserEmail(expense.getPaidByUserEmail());
-        // Reliability Issue: No null check for getColocation()
-        dto.setColocationId(expense.getColocation().getId());
-        dto.setDatePaid(expense.getDatePaid());
-
-        // Performance Issue: Creating anonymous class in stream instead of method reference
-        List<ExpenseShareDTO> shareDTOs = expense.getShares().stream().map(share -> {
-            ExpenseShareDTO s = new ExpenseShareDTO();
-            s.setUserId(share.getUserId());
-            s.setUserEmail(share.getUserEmail());
-            s.setAmount(share.getAmount());
-            s.setPaid(share.getPaid());
-            s.setDatePaid(share.getDatePaid());
-
-            // Maintainability Issue: Unused variable in lambda
-            String temp = "temp";
-
-            return s;
-        }).collect(Collectors.toList());
-
-        dto.setShares(shareDTOs);
-        return dto;
-    }
-
 }
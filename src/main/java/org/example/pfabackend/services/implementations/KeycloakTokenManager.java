@@ -0,0 +1,160 @@
+package org.example.pfabackend.services.implementations;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Access token of the backend's Keycloak service account (client credentials), shared by every call to the
+ * admin REST API instead of one token request per call.
+ * <p>
+ * The token is served from memory until it expires. Once it is within {@code keycloak.token.refresh-before} of
+ * its {@code expires_in}, the next caller triggers a refresh in the background and still gets the current token.
+ * Only one token request is in flight at a time: concurrent callers wait for the same response.
+ */
+@Slf4j
+@Component
+public class KeycloakTokenManager {
+
+    private final RestTemplate restTemplate;
+    private final String tokenUrl;
+    private final String clientId;
+    private final String clientSecret;
+    private final Duration refreshBefore;
+    private final Clock clock;
+    // Exécute les demandes de jeton, hors du thread appelant
+    private final Executor refreshExecutor;
+
+    private volatile Token token;
+    // Requête de jeton en cours, partagée par les appelants (protégée par this)
+    private CompletableFuture<Token> inFlight;
+
+    @Autowired
+    public KeycloakTokenManager(
+            RestTemplate restTemplate,
+            @Value("${keycloak.token.url}") String tokenUrl,
+            @Value("${keycloak.client-id}") String clientId,
+            @Value("${keycloak.client-secret}") String clientSecret,
+            @Value("${keycloak.token.refresh-before:30s}") Duration refreshBefore) {
+        this(restTemplate, tokenUrl, clientId, clientSecret, refreshBefore, Clock.systemUTC(),
+                task -> Thread.ofVirtual().name("keycloak-token-refresh").start(task));
+    }
+
+    public KeycloakTokenManager(RestTemplate restTemplate, String tokenUrl, String clientId, String clientSecret,
+                                Duration refreshBefore, Clock clock, Executor refreshExecutor) {
+        this.restTemplate = restTemplate;
+        this.tokenUrl = tokenUrl;
+        this.clientId = clientId;
+        this.clientSecret = clientSecret;
+        this.refreshBefore = refreshBefore;
+        this.clock = clock;
+        this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * A valid access token, waiting for Keycloak only when there is none in memory.
+     *
+     * @throws IllegalStateException if Keycloak does not deliver a token
+     */
+    public String getAccessToken() {
+        Token current = token;
+        Instant now = clock.instant();
+        if (current != null && now.isBefore(current.expiresAt())) {
+            if (!now.isBefore(current.refreshAt())) {
+                refresh();
+            }
+            return current.value();
+        }
+        try {
+            return refresh().join().value();
+        } catch (CompletionException ex) {
+            throw new IllegalStateException("Unable to retrieve access token from Keycloak.", ex.getCause());
+        }
+    }
+
+    /**
+     * Drops the token if it is still the cached one (Keycloak answered 401: revoked or session ended).
+     */
+    public void invalidate(String accessToken) {
+        Token current = token;
+        if (current != null && current.value().equals(accessToken)) {
+            token = null;
+        }
+    }
+
+    private synchronized CompletableFuture<Token> refresh() {
+        if (inFlight != null) {
+            return inFlight;
+        }
+        // Jeton déjà renouvelé par la demande qui vient de se terminer
+        Token current = token;
+        if (current != null && clock.instant().isBefore(current.refreshAt())) {
+            return CompletableFuture.completedFuture(current);
+        }
+        CompletableFuture<Token> future = new CompletableFuture<>();
+        inFlight = future;
+        refreshExecutor.execute(() -> {
+            Token refreshed;
+            try {
+                refreshed = requestToken();
+                token = refreshed;
+            } catch (RuntimeException ex) {
+                // Le jeton courant reste servi jusqu'à son expiration
+                log.warn("Keycloak token request failed: {}", ex.getMessage());
+                finished(future).completeExceptionally(ex);
+                return;
+            }
+            finished(future).complete(refreshed);
+        });
+        return future;
+    }
+
+    // Libérée avant d'être complétée : un appelant réveillé par la réponse peut lancer la demande suivante
+    private synchronized CompletableFuture<Token> finished(CompletableFuture<Token> future) {
+        inFlight = null;
+        return future;
+    }
+
+    private Token requestToken() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        MultiValueMap<String, String> body = new LinkedMultiValueMap<>();
+        body.add("grant_type", "client_credentials");
+        body.add("client_id", clientId);
+        body.add("client_secret", clientSecret);
+
+        // Durée de vie comptée depuis l'envoi de la requête : le jeton expire chez Keycloak au plus tard à cet instant
+        Instant requestedAt = clock.instant();
+        ResponseEntity<JsonNode> response = restTemplate.exchange(
+                tokenUrl, HttpMethod.POST, new HttpEntity<>(body, headers), JsonNode.class);
+        JsonNode json = response.getBody();
+        if (json == null || !json.hasNonNull("access_token")) {
+            throw new IllegalStateException("No access_token in Keycloak response");
+        }
+
+        Duration lifetime = Duration.ofSeconds(json.path("expires_in").asLong(60));
+        // Jeton court : renouvelé à mi-vie plutôt qu'à chaque appel
+        Duration refreshAfter = lifetime.minus(refreshBefore);
+        if (refreshAfter.compareTo(lifetime.dividedBy(2)) < 0) {
+            refreshAfter = lifetime.dividedBy(2);
+        }
+        return new Token(json.get("access_token").asText(), requestedAt.plus(refreshAfter), requestedAt.plus(lifetime));
+    }
+
+    private record Token(String value, Instant refreshAt, Instant expiresAt) {
+    }
+}
@@ -2,10 +2,11 @@ package org.example.pfabackend.services.implementations;
 
 import lombok.RequiredArgsConstructor;
 import org.example.pfabackend.dto.ReviewDTO;
-import org.example.pfabackend.entities.Colocation;
 import org.example.pfabackend.entities.Review;
+import org.example.pfabackend.mappers.ReviewMapper;
 import org.example.pfabackend.repositories.ColocationRepository;
 import org.example.pfabackend.repositories.ReviewRepository;
+import org.example.pfabackend.search.ColocationIndexer;
 import org.example.pfabackend.services.ReviewService;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,15 +20,18 @@ public class ReviewServiceImpl implements ReviewService {
 
     private final ReviewRepository reviewRepository;
     private final ColocationRepository colocationRepository;
+    private final ColocationMembershipCache membershipCache;
+    private final ColocationIndexer colocationIndexer;
+    private final ReviewMapper reviewMapper;
 
     @Override
     @Transactional
     public ReviewDTO addReview(Long colocationId, ReviewDTO reviewDTO, String userId, String username) {
 
-        Colocation colocation = colocationRepository.findById(colocationId)
-                .orElseThrow(() -> new IllegalArgumentException("Colocation not found"));
-
-        if (!colocation.getAssignedUserIds().contains(userId)) {
+        if (!colocationRepository.existsById(colocationId)) {
+            throw new IllegalArgumentException("Colocation not found");
+        }
+        if (!membershipCache.isAssigned(userId, colocationId)) {
             throw new IllegalStateException("Only assigned users can add reviews");
         }
 
@@ -36,32 +40,20 @@ public class ReviewServiceImpl implements ReviewService {
         review.setReviewerName(username); // now set from token
         review.setRating(reviewDTO.rating());
         review.setComment(reviewDTO.comment());
-        review.setColocation(colocation);
+        review.setColocation(colocationRepository.getReferenceById(colocationId));
 
         Review saved = reviewRepository.save(review);
+        colocationRepository.addRating(colocationId, saved.getRating());
+        colocationIndexer.contentChanged(colocationId);
 
-        return new ReviewDTO(
-                saved.getId(),
-                saved.getReviewerId(),
-                saved.getReviewerName(),
-                saved.getRating(),
-                saved.getComment(),
-                saved.getCreatedAt()
-        );
+        return reviewMapper.toDto(saved);
     }
 
     @Override
     public List<ReviewDTO> getReviewsByColocationId(Long colocationId) {
         List<Review> reviews = reviewRepository.findByColocationId(colocationId);
         return reviews.stream()
-                .map(review -> new ReviewDTO(
-                        review.getId(),
-                        review.getReviewerId(),
-                        review.getReviewerName(),
-                        review.getRating(),
-                        review.getComment(),
-                        review.getCreatedAt()
-                ))
+                .map(reviewMapper::toDto)
                 .toList();
     }
 
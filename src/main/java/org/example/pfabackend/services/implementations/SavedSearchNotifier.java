@@ -0,0 +1,29 @@
+package org.example.pfabackend.services.implementations;
+
+import lombok.RequiredArgsConstructor;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.search.ColocationDocument;
+import org.example.pfabackend.search.SavedSearchPercolator;
+import org.example.pfabackend.websocket.WebSocketNotifier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells the owners of the saved searches matched by a newly published colocation, except its publisher.
+ * Shared by the creation, publication and import paths.
+ */
+@Component
+@RequiredArgsConstructor
+public class SavedSearchNotifier {
+
+    private final SavedSearchPercolator savedSearchPercolator;
+    private final WebSocketNotifier webSocketNotifier;
+
+    public void published(Colocation colocation, ColocationDocument document) {
+        savedSearchPercolator.percolate(document).forEach((userId, searchNames) -> {
+            if (!userId.equals(colocation.getIdOfPublisher())) {
+                webSocketNotifier.notifyUser(userId, "🏠 New colocation matching your search \""
+                        + String.join("\", \"", searchNames) + "\": " + colocation.getName() + " (#" + colocation.getId() + ")");
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.pfabackend.services.implementations;
+
+import lombok.RequiredArgsConstructor;
+import org.example.pfabackend.dto.SavedSearchDTO;
+import org.example.pfabackend.entities.SavedSearch;
+import org.example.pfabackend.enums.Amenity;
+import org.example.pfabackend.exceptions.ResourceNotFoundException;
+import org.example.pfabackend.repositories.SavedSearchRepository;
+import org.example.pfabackend.search.SavedSearchPercolator;
+import org.example.pfabackend.services.SavedSearchService;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SavedSearchServiceImpl implements SavedSearchService {
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final SavedSearchPercolator percolator;
+
+    @Override
+    public List<SavedSearchDTO> getSavedSearches(String userId) {
+        return savedSearchRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    @Override
+    public SavedSearchDTO createSavedSearch(String userId, SavedSearchDTO dto) {
+        Set<Amenity> amenities = dto.amenities() == null ? Set.of() : dto.amenities().stream()
+                .map(Amenity::fromParam)
+                .collect(Collectors.toSet());
+        if (isBlank(dto.keyword()) && isBlank(dto.city()) && dto.minPrice() == null && dto.maxPrice() == null
+                && amenities.isEmpty()) {
+            throw new IllegalArgumentException("A saved search needs at least one criterion");
+        }
+
+        SavedSearch savedSearch = new SavedSearch();
+        savedSearch.setUserId(userId);
+        savedSearch.setName(dto.name());
+        savedSearch.setKeyword(isBlank(dto.keyword()) ? null : dto.keyword().trim());
+        savedSearch.setCity(isBlank(dto.city()) ? null : dto.city().trim());
+        savedSearch.setMinPrice(dto.minPrice());
+        savedSearch.setMaxPrice(dto.maxPrice());
+        savedSearch.setAmenities(Amenity.mask(amenities));
+
+        SavedSearch saved = savedSearchRepository.save(savedSearch);
+        percolator.register(saved);
+        return toDTO(saved);
+    }
+
+    @Override
+    public void deleteSavedSearch(String userId, Long id) {
+        SavedSearch savedSearch = savedSearchRepository.findByIdAndUserId(id, userId)
+                .orElseThrow(() -> new ResourceNotFoundException("Saved search with ID " + id + " not found"));
+        savedSearchRepository.delete(savedSearch);
+        percolator.unregister(id);
+    }
+
+    private SavedSearchDTO toDTO(SavedSearch savedSearch) {
+        return new SavedSearchDTO(
+                savedSearch.getId(),
+                savedSearch.getName(),
+                savedSearch.getKeyword(),
+                savedSearch.getCity(),
+                savedSearch.getMinPrice(),
+                savedSearch.getMaxPrice(),
+                Amenity.fromMask(savedSearch.getAmenities()).stream().map(Amenity::name).toList(),
+                savedSearch.getCreatedAt()
+        );
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
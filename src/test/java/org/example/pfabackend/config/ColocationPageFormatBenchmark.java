@@ -0,0 +1,88 @@
+package org.example.pfabackend.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.pfabackend.dto.ColocationDTO;
+import org.example.pfabackend.dto.ReviewDTO;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialized size and serialization time of a 100-item {@code Page<ColocationDTO>} in the formats negotiated by
+ * {@link WebConfig} (JSON, Smile, CBOR), with the object mappers the converters build by default.
+ * Not run by the test suite: launch {@link #main} from the IDE (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ColocationPageFormatBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private Page<ColocationDTO> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = objectMapper(format);
+        page = page();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    private static ObjectMapper objectMapper(String format) {
+        return switch (format) {
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+    }
+
+    private static Page<ColocationDTO> page() {
+        List<ColocationDTO> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            List<ReviewDTO> reviews = List.of(
+                    new ReviewDTO(i * 2L, "user-" + i, "Roommate " + i, 4, "Calm flat, friendly roommates", LocalDate.of(2025, 3, 1)),
+                    new ReviewDTO(i * 2L + 1, "user-" + (i + 1), "Roommate " + (i + 1), 3, "A bit far from the metro", LocalDate.of(2025, 4, 1)));
+            content.add(new ColocationDTO(
+                    (long) i, "Colocation " + i, "publisher-" + i, "Publisher " + i, i + " rue de la Paix", "Paris",
+                    "75002", "Bright flat close to the university, shared kitchen and living room.", 400.0 + i, 3,
+                    "Mixed", true, false, true, true, false, false, 4, 2, "Available",
+                    List.of("No smoking", "No pets"), List.of("Quiet", "Near university"),
+                    List.of("https://img.example/" + i + "/1.jpg", "https://img.example/" + i + "/2.jpg"),
+                    3.5, reviews, LocalDate.of(2025, 9, 1), LocalDate.of(2025, 1, 15), LocalDate.of(2025, 5, 2),
+                    false, true, List.of("user-" + i, "user-" + (i + 1)), 3L));
+        }
+        return new PageImpl<>(content, PageRequest.of(0, PAGE_SIZE), 1000);
+    }
+
+    public static void main(String[] args) throws RunnerException, JsonProcessingException {
+        Page<ColocationDTO> page = page();
+        for (String format : List.of("json", "smile", "cbor")) {
+            System.out.printf("%-5s %8d bytes%n", format, objectMapper(format).writeValueAsBytes(page).length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(ColocationPageFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
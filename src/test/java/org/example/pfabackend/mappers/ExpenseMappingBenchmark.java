@@ -0,0 +1,74 @@
+package org.example.pfabackend.mappers;
+
+import org.example.pfabackend.dto.ExpenseDTO;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.entities.Expense;
+import org.example.pfabackend.entities.ExpenseShare;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reflection-based ModelMapper against the generated {@link ExpenseMapper} on an expense with four shares.
+ * Not run by the test suite: launch {@link #main} from the IDE (test classpath) to get time and allocation
+ * per mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ExpenseMappingBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final ExpenseMapper expenseMapper = new ExpenseMapperImpl();
+    private Expense expense;
+
+    @Setup
+    public void setUp() {
+        Colocation colocation = new Colocation();
+        colocation.setId(1L);
+
+        expense = new Expense();
+        expense.setId(10L);
+        expense.setLabel("Electricity Bill");
+        expense.setTotalAmount(120.0);
+        expense.setDateLimit(LocalDate.of(2025, 6, 30));
+        expense.setColocation(colocation);
+        expense.setPaidByUserId("user-0");
+        expense.setPaidByUserEmail("user-0@example.org");
+        for (int i = 0; i < 4; i++) {
+            ExpenseShare share = new ExpenseShare();
+            share.setExpense(expense);
+            share.setUserId("user-" + i);
+            share.setUserEmail("user-" + i + "@example.org");
+            share.setAmount(30.0);
+            share.setPaid(i % 2 == 0);
+            expense.getShares().add(share);
+        }
+    }
+
+    @Benchmark
+    public ExpenseDTO modelMapper() {
+        return modelMapper.map(expense, ExpenseDTO.class);
+    }
+
+    @Benchmark
+    public ExpenseDTO mapStruct() {
+        return expenseMapper.toDto(expense);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExpenseMappingBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
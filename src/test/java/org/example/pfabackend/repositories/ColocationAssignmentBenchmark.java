@@ -0,0 +1,127 @@
+package org.example.pfabackend.repositories;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Assignment throughput with 16 threads spread over {@value #COLOCATIONS} colocations, with the SQL of
+ * {@code assignUserToColocation}: the conditional UPDATE of {@code reserveRoommateSlot} and the membership row,
+ * in one transaction per assignment. The row lock on the colocation is held for that transaction only.
+ * <p>
+ * Needs the application schema in a PostgreSQL database, same options as {@link ColocationImportBenchmark}.
+ * Not run by the test suite: launch {@link #main} from the IDE (test classpath). The colocations are inserted
+ * with a dedicated publisher id before the run and deleted after it, with their members.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(16)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ColocationAssignmentBenchmark {
+
+    private static final String PUBLISHER = "assignment-benchmark";
+    private static final int COLOCATIONS = 5;
+
+    private final AtomicInteger threads = new AtomicInteger();
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private List<Long> ids;
+
+    @Setup
+    public void setUp() {
+        dataSource = dataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        cleanUp();
+
+        List<Object[]> batch = new ArrayList<>(COLOCATIONS);
+        for (int i = 0; i < COLOCATIONS; i++) {
+            batch.add(new Object[]{"Assignment " + i, PUBLISHER, i + " rue de la Paix", LocalDate.now(), LocalDate.now()});
+        }
+        // Places illimitées : chaque affectation réussit, on mesure le chemin nominal
+        jdbcTemplate.batchUpdate("INSERT INTO colocation (version, name, id_of_publisher, name_of_publisher, address, city, " +
+                "postal_code, price, number_of_rooms, amenities, max_roommates, current_roommates, created_at, updated_at, " +
+                "is_archived, is_published, rating_sum, rating_count) VALUES (0, ?, ?, 'Agency', ?, 'Paris', '75002', 500, 1, " +
+                "0, " + Integer.MAX_VALUE + ", 0, ?, ?, false, true, 0, 0)", batch);
+        ids = jdbcTemplate.queryForList("SELECT id FROM colocation WHERE id_of_publisher = ? ORDER BY id", Long.class, PUBLISHER);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cleanUp();
+        dataSource.destroy();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM colocation_membership WHERE colocation_id IN " +
+                "(SELECT id FROM colocation WHERE id_of_publisher = ?)", PUBLISHER);
+        jdbcTemplate.update("DELETE FROM colocation WHERE id_of_publisher = ?", PUBLISHER);
+    }
+
+    /**
+     * One connection and one sequence of user ids per benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Assigner {
+
+        private SingleConnectionDataSource dataSource;
+        JdbcTemplate jdbcTemplate;
+        TransactionTemplate transaction;
+        String prefix;
+        int next;
+
+        @Setup
+        public void setUp(ColocationAssignmentBenchmark benchmark) {
+            dataSource = dataSource();
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+            prefix = "assignment-" + benchmark.threads.getAndIncrement() + "-";
+        }
+
+        @TearDown
+        public void tearDown() {
+            dataSource.destroy();
+        }
+    }
+
+    @Benchmark
+    public Object assign(Assigner assigner) {
+        int n = assigner.next++;
+        Long id = ids.get(n % COLOCATIONS);
+        return assigner.transaction.execute(status -> {
+            if (assigner.jdbcTemplate.update("UPDATE colocation SET current_roommates = COALESCE(current_roommates, 0) + 1, " +
+                    "version = version + 1 WHERE id = ? AND COALESCE(current_roommates, 0) < max_roommates", id) == 0) {
+                throw new IllegalStateException("No seat left in colocation " + id);
+            }
+            return assigner.jdbcTemplate.update("INSERT INTO colocation_membership (colocation_id, user_id, role, joined_at) " +
+                    "VALUES (?, ?, 'ROOMMATE', now())", id, assigner.prefix + n);
+        });
+    }
+
+    private static SingleConnectionDataSource dataSource() {
+        return new SingleConnectionDataSource(
+                System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/ColocApp"),
+                System.getProperty("bench.user", "postgres"),
+                System.getProperty("bench.password", "oex"),
+                true);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColocationAssignmentBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package org.example.pfabackend.repositories;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page 1 against page 1000 of the public listing (20 per page), with the SQL of the two modes:
+ * OFFSET page plus the count(*) of {@code Page}, and the keyset slice of {@code findPublicIdsBefore}
+ * (id &lt; cursor, LIMIT size + 1). The keyset slice should cost the same on both pages.
+ * <p>
+ * Needs the application schema in a PostgreSQL database, same options as {@link ColocationImportBenchmark}.
+ * Not run by the test suite: launch {@link #main} from the IDE (test classpath). {@code rows} published
+ * colocations are inserted with a dedicated publisher id before the run and deleted after it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ColocationFeedBenchmark {
+
+    private static final String PUBLISHER = "feed-benchmark";
+    private static final int SIZE = 20;
+
+    @Param("50000")
+    public int rows;
+
+    @Param({"1", "1000"})
+    public int page;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Long cursor;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/ColocApp"),
+                System.getProperty("bench.user", "postgres"),
+                System.getProperty("bench.password", "oex"),
+                true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        cleanUp();
+
+        List<Object[]> batch = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            batch.add(new Object[]{"Feed " + i, PUBLISHER, i + " rue de la Paix", 400.0 + i % 500, LocalDate.now(), LocalDate.now()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO colocation (version, name, id_of_publisher, name_of_publisher, address, city, " +
+                "postal_code, price, number_of_rooms, amenities, created_at, updated_at, is_archived, is_published, " +
+                "rating_sum, rating_count) VALUES (0, ?, ?, 'Agency', ?, 'Paris', '75002', ?, 1, 0, ?, ?, false, true, 0, 0)", batch);
+        jdbcTemplate.execute("ANALYZE colocation");
+
+        // Curseur de la page demandée : dernier id de la page précédente (aucun pour la première)
+        cursor = page == 1 ? Long.MAX_VALUE : jdbcTemplate.queryForObject("SELECT id FROM colocation " +
+                "WHERE is_published = true AND is_archived = false ORDER BY id DESC LIMIT 1 OFFSET ?",
+                Long.class, (page - 1) * SIZE - 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        cleanUp();
+        dataSource.destroy();
+    }
+
+    private void cleanUp() {
+        jdbcTemplate.update("DELETE FROM colocation WHERE id_of_publisher = ?", PUBLISHER);
+    }
+
+    @Benchmark
+    public Object offsetPage() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM colocation WHERE is_published = true AND is_archived = false " +
+                "ORDER BY id DESC LIMIT ? OFFSET ?", Long.class, SIZE, (page - 1) * SIZE);
+        Long total = jdbcTemplate.queryForObject("SELECT count(*) FROM colocation WHERE is_published = true AND is_archived = false",
+                Long.class);
+        return List.of(ids, total);
+    }
+
+    @Benchmark
+    public Object keysetSlice() {
+        return jdbcTemplate.queryForList("SELECT id FROM colocation WHERE is_published = true AND is_archived = false " +
+                "AND id < ? ORDER BY id DESC LIMIT ?", Long.class, cursor, SIZE + 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColocationFeedBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,154 @@
+package org.example.pfabackend.repositories;
+
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.entities.ColocationImage;
+import org.example.pfabackend.enums.Amenity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk import of 1000 colocations (2 rules, 2 tags, 3 images, 1 membership each) in one transaction:
+ * single-row inserts with the generated id read back after each colocation, as Hibernate does for IDENTITY
+ * entities, against {@link ColocationBatchRepository} (one JDBC batch per table).
+ * <p>
+ * Needs the application schema in a PostgreSQL database: {@code -Dbench.url=jdbc:postgresql://host:5432/ColocApp
+ * -Dbench.user=... -Dbench.password=...} (defaults: the local database of application.properties). Not run by the
+ * test suite: launch {@link #main} from the IDE (test classpath). Rows are tagged with a dedicated publisher id and
+ * deleted after each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ColocationImportBenchmark {
+
+    private static final String PUBLISHER = "import-benchmark";
+
+    @Param("1000")
+    public int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ColocationBatchRepository batchRepository;
+
+    @Setup
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+                System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/ColocApp"),
+                System.getProperty("bench.user", "postgres"),
+                System.getProperty("bench.password", "oex"),
+                true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        batchRepository = new ColocationBatchRepository(jdbcTemplate);
+        cleanUp();
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUp() {
+        String ids = "(SELECT id FROM colocation WHERE id_of_publisher = '" + PUBLISHER + "')";
+        for (String table : List.of("colocation_rules", "colocation_tags", "colocation_image", "colocation_membership")) {
+            jdbcTemplate.update("DELETE FROM " + table + " WHERE colocation_id IN " + ids);
+        }
+        jdbcTemplate.update("DELETE FROM colocation WHERE id_of_publisher = ?", PUBLISHER);
+    }
+
+    @TearDown
+    public void close() {
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void rowByRow() {
+        List<Colocation> colocations = colocations(rows);
+        transactionTemplate.executeWithoutResult(status -> colocations.forEach(this::insertOne));
+    }
+
+    @Benchmark
+    public void batched() {
+        List<Colocation> colocations = colocations(rows);
+        transactionTemplate.executeWithoutResult(status -> batchRepository.insertAll(colocations));
+    }
+
+    private void insertOne(Colocation colocation) {
+        KeyHolder key = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement("INSERT INTO colocation (version, name, id_of_publisher, " +
+                    "name_of_publisher, address, city, postal_code, price, number_of_rooms, has_wifi, amenities, " +
+                    "created_at, updated_at, is_archived, is_published, rating_sum, rating_count) " +
+                    "VALUES (0, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, false, true, 0, 0)", Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, colocation.getName());
+            ps.setString(2, colocation.getIdOfPublisher());
+            ps.setString(3, colocation.getNameOfPublisher());
+            ps.setString(4, colocation.getAddress());
+            ps.setString(5, colocation.getCity());
+            ps.setString(6, colocation.getPostalCode());
+            ps.setDouble(7, colocation.getPrice());
+            ps.setInt(8, colocation.getNumberOfRooms());
+            ps.setBoolean(9, colocation.getHasWifi());
+            ps.setInt(10, colocation.getAmenities());
+            ps.setObject(11, colocation.getCreatedAt());
+            ps.setObject(12, colocation.getUpdatedAt());
+            return ps;
+        }, key);
+        Long id = ((Number) key.getKeys().get("id")).longValue();
+        colocation.getRules().forEach(rule -> jdbcTemplate.update("INSERT INTO colocation_rules (colocation_id, rule) VALUES (?, ?)", id, rule));
+        colocation.getTags().forEach(tag -> jdbcTemplate.update("INSERT INTO colocation_tags (colocation_id, tag) VALUES (?, ?)", id, tag));
+        colocation.getImages().forEach(image -> jdbcTemplate.update("INSERT INTO colocation_image (colocation_id, url) VALUES (?, ?)", id, image.getUrl()));
+        colocation.getAssignedUserIds().forEach(user -> jdbcTemplate.update("INSERT INTO colocation_membership (colocation_id, user_id, role, joined_at) " +
+                "VALUES (?, ?, 'ROOMMATE', CURRENT_TIMESTAMP)", id, user));
+    }
+
+    private static List<Colocation> colocations(int count) {
+        List<Colocation> colocations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Colocation colocation = new Colocation();
+            colocation.setName("Imported " + i);
+            colocation.setIdOfPublisher(PUBLISHER);
+            colocation.setNameOfPublisher("Agency");
+            colocation.setAddress(i + " rue de la Paix");
+            colocation.setCity("Paris");
+            colocation.setPostalCode("75002");
+            colocation.setPrice(400.0 + i);
+            colocation.setHasWifi(true);
+            colocation.setAmenities(Amenity.mask(Amenity.of(colocation)));
+            colocation.setIsPublished(true);
+            colocation.setCreatedAt(LocalDate.now());
+            colocation.setUpdatedAt(LocalDate.now());
+            colocation.setRules(List.of("No smoking", "No pets"));
+            colocation.setTags(List.of("Quiet", "Near university"));
+            colocation.setAssignedUserIds(List.of("user-" + i));
+            for (int image = 1; image <= 3; image++) {
+                ColocationImage colocationImage = new ColocationImage();
+                colocationImage.setUrl("https://img.example/" + i + "/" + image + ".jpg");
+                colocation.addImage(colocationImage);
+            }
+            colocations.add(colocation);
+        }
+        return colocations;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColocationImportBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.enums.SearchScope;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ColocationRelevanceIndex#search} of a keyword found in {@value #MATCHES} colocations, whatever the number of
+ * {@code listings}: the time should stay flat from 10 000 to 100 000 colocations since only the trigram candidates
+ * are verified and scored.
+ * Not run by the test suite: launch {@link #main} from the IDE (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ColocationRelevanceBenchmark {
+
+    private static final String KEYWORD = "montmartre";
+    private static final int MATCHES = 20;
+    private static final List<String> CITIES = List.of("paris", "lyon", "marseille", "bordeaux", "toulouse", "nantes");
+
+    @Param({"10000", "100000"})
+    public int listings;
+
+    private ColocationRelevanceIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<ColocationDocument> documents = new ArrayList<>(listings);
+        for (int i = 0; i < listings; i++) {
+            String description = randomWord(random) + " " + randomWord(random) + " " + randomWord(random)
+                    + (i % (listings / MATCHES) == 0 ? " near " + KEYWORD : "");
+            documents.add(new ColocationDocument((long) i, "Colocation " + randomWord(random), "Agency",
+                    i + " rue " + randomWord(random), CITIES.get(i % CITIES.size()), "75002", description, null, null,
+                    List.of("No smoking"), List.of("Quiet"), 500.0, 1, Set.of(), null, true, false));
+        }
+        index = new ColocationRelevanceIndex();
+        index.rebuild(documents);
+    }
+
+    @Benchmark
+    public Page<Long> rareKeyword() {
+        return index.search(KEYWORD, SearchScope.PUBLIC, PageRequest.of(0, 10));
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 5 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColocationRelevanceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.enums.SearchScope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * {@code sort=relevance} ranks the same colocations as the default search: the whole keyword as a substring
+ * of any field, not any of its words.
+ */
+class ColocationRelevanceIndexTests {
+
+    private final ColocationRelevanceIndex index = new ColocationRelevanceIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(List.of(
+                document(1L, "Quiet studio", "Paris", "Close to the studio of a painter", true),
+                document(2L, "Quiet loft", "Lyon", "Studio flat nearby", true),
+                document(3L, "Studio", "Nice", "Sea view", true),
+                document(4L, "Studio studio", "Nice", null, false)));
+    }
+
+    @Test
+    void multiWordKeywordMatchesTheWholePhraseOnly() {
+        Page<Long> page = index.search("Quiet Studio", SearchScope.PUBLIC, PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).containsExactly(1L);
+        assertThat(page.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void rankingOnlyReordersTheDefaultResults() {
+        Page<Long> page = index.search("studio", SearchScope.PUBLIC, PageRequest.of(0, 10));
+
+        // Mot du nom en premier, colocation non publiée exclue
+        assertThat(page.getContent()).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(page.getContent().get(2)).isEqualTo(2L);
+        assertThat(index.search("studio", SearchScope.ALL, PageRequest.of(0, 10)).getContent()).startsWith(4L);
+    }
+
+    @Test
+    void substringMatchesAreKeptWithoutScore() {
+        assertThat(index.search("par", SearchScope.PUBLIC, PageRequest.of(0, 10)).getContent()).containsExactly(1L);
+        assertThat(index.search("ni", SearchScope.PUBLIC, PageRequest.of(0, 10)).getContent()).containsExactly(3L);
+    }
+
+    @Test
+    void candidatesFollowSavesAndDeletes() {
+        index.colocationSaved(document(3L, "Loft", "Nice", "Sea view", true));
+        index.colocationDeleted(1L);
+
+        assertThat(index.search("studio", SearchScope.PUBLIC, PageRequest.of(0, 10)).getContent()).containsExactly(2L);
+        assertThat(index.search("loft", SearchScope.PUBLIC, PageRequest.of(0, 10)).getContent()).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    private static ColocationDocument document(Long id, String name, String city, String description, boolean published) {
+        return new ColocationDocument(id, name, "publisher", null, city, null, description, null, null,
+                List.of(), List.of(), 500.0, 1, Set.of(), null, published, false);
+    }
+}
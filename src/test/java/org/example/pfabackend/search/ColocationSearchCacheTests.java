@@ -0,0 +1,52 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.dto.ColocationSummaryDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A write only evicts the substring pages mentioning one of its words, and every page matched otherwise.
+ */
+class ColocationSearchCacheTests {
+
+    private final ColocationSearchCache cache = new ColocationSearchCache(100, Duration.ofMinutes(1));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void substringPagesSurviveUnrelatedWrites() {
+        search("studios", true);
+        cache.saved(document(1L, "Studio in Paris"));
+        search("studios", true);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void stemmedOrCorrectedPagesAreEvictedByEveryWrite() {
+        search("studios", false);
+        cache.saved(document(1L, "Studio in Paris"));
+        search("studios", false);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private void search(String keyword, boolean substring) {
+        cache.get(keyword, 0, 10, false, false, substring, () -> {
+            loads.incrementAndGet();
+            return Page.<ColocationSummaryDTO>empty();
+        });
+    }
+
+    private static ColocationDocument document(Long id, String name) {
+        return new ColocationDocument(id, name, "publisher", null, "Paris", null, null, null, null,
+                List.of(), List.of(), 500.0, 1, Set.of(), null, true, false);
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.pfabackend.search;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A misspelled city ("bordeuax") over {@code listings} colocations (100 000 by default, 20 000 distinct words):
+ * <ul>
+ *     <li>{@code bkTreeCorrection}: {@link ColocationTermDictionary#correct}, the BK-tree lookup,</li>
+ *     <li>{@code bruteForceCorrection}: the same correction comparing the word to every term of the vocabulary,</li>
+ *     <li>{@code likeSearch}: the {@code %keyword%} LIKE query the correction saves a retry of (returns nothing).</li>
+ * </ul>
+ * {@code likeSearch} needs the application schema in a PostgreSQL database, same options as
+ * {@code ColocationImportBenchmark}; its rows are tagged with a dedicated publisher id and deleted after the run.
+ * Not run by the test suite: launch {@link #main} from the IDE (test classpath).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ColocationTermDictionaryBenchmark {
+
+    private static final String PUBLISHER = "dictionary-benchmark";
+    private static final String MISSPELLED = "bordeuax";
+    private static final List<String> CITIES = List.of("paris", "lyon", "marseille", "bordeaux", "toulouse", "nantes",
+            "strasbourg", "montpellier", "lille", "rennes", "grenoble", "dijon", "angers", "nimes", "villeurbanne");
+
+    @Param("100000")
+    public int listings;
+
+    private ColocationTermDictionary dictionary;
+    private List<String> vocabulary;
+    private List<ColocationDocument> documents;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> words = new ArrayList<>(20_000);
+        for (int i = 0; i < 20_000; i++) {
+            words.add(randomWord(random));
+        }
+        documents = new ArrayList<>(listings);
+        for (int i = 0; i < listings; i++) {
+            String description = String.join(" ", words.get(random.nextInt(words.size())),
+                    words.get(random.nextInt(words.size())), words.get(random.nextInt(words.size())));
+            documents.add(new ColocationDocument((long) i, "Colocation " + words.get(random.nextInt(words.size())),
+                    "Agency", i + " rue " + words.get(random.nextInt(words.size())), CITIES.get(i % CITIES.size()),
+                    "75002", description, null, null, List.of("No smoking"), List.of("Quiet"), 500.0, 1, Set.of(),
+                    null, true, false));
+        }
+        dictionary = new ColocationTermDictionary();
+        dictionary.rebuild(documents);
+
+        Set<String> terms = new HashSet<>();
+        documents.forEach(document -> document.searchableFields()
+                .forEach(field -> terms.addAll(ColocationDocument.words(field))));
+        vocabulary = new ArrayList<>(terms);
+    }
+
+    @Benchmark
+    public String bkTreeCorrection() {
+        return dictionary.correct(MISSPELLED);
+    }
+
+    @Benchmark
+    public String bruteForceCorrection() {
+        String best = null;
+        int bestDistance = 3;
+        for (String term : vocabulary) {
+            int distance = ColocationTermDictionary.distance(MISSPELLED, term);
+            if (distance < bestDistance) {
+                best = term;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    @Benchmark
+    public List<Long> likeSearch(Database database) {
+        return database.jdbcTemplate.queryForList("SELECT c.id FROM colocation c WHERE " +
+                "LOWER(c.name) LIKE ? OR LOWER(c.address) LIKE ? OR LOWER(c.city) LIKE ? OR LOWER(c.description) LIKE ? " +
+                "ORDER BY c.id DESC LIMIT 10", Long.class, "%" + MISSPELLED + "%", "%" + MISSPELLED + "%",
+                "%" + MISSPELLED + "%", "%" + MISSPELLED + "%");
+    }
+
+    @State(Scope.Benchmark)
+    public static class Database {
+
+        private SingleConnectionDataSource dataSource;
+        JdbcTemplate jdbcTemplate;
+
+        @Setup
+        public void setUp(ColocationTermDictionaryBenchmark benchmark) {
+            dataSource = new SingleConnectionDataSource(
+                    System.getProperty("bench.url", "jdbc:postgresql://localhost:5432/ColocApp"),
+                    System.getProperty("bench.user", "postgres"),
+                    System.getProperty("bench.password", "oex"),
+                    true);
+            jdbcTemplate = new JdbcTemplate(dataSource);
+            cleanUp();
+            List<Object[]> rows = new ArrayList<>(benchmark.documents.size());
+            for (ColocationDocument document : benchmark.documents) {
+                rows.add(new Object[]{document.name(), PUBLISHER, document.address(), document.city(),
+                        document.description(), LocalDate.now(), LocalDate.now()});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO colocation (version, name, id_of_publisher, name_of_publisher, address, " +
+                    "city, postal_code, description, price, number_of_rooms, amenities, created_at, updated_at, is_archived, " +
+                    "is_published, rating_sum, rating_count) VALUES (0, ?, ?, 'Agency', ?, ?, '75002', ?, 500, 1, 0, ?, ?, " +
+                    "false, true, 0, 0)", rows);
+            jdbcTemplate.execute("ANALYZE colocation");
+        }
+
+        @TearDown
+        public void tearDown() {
+            cleanUp();
+            dataSource.destroy();
+        }
+
+        private void cleanUp() {
+            jdbcTemplate.update("DELETE FROM colocation WHERE id_of_publisher = ?", PUBLISHER);
+        }
+    }
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        int length = 5 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ColocationTermDictionaryBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
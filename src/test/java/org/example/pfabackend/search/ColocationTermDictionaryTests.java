@@ -0,0 +1,113 @@
+package org.example.pfabackend.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * "Did you mean" corrections: BK-tree lookups within edit distance 1-2, fed by public colocations only.
+ */
+class ColocationTermDictionaryTests {
+
+    private final ColocationTermDictionary dictionary = new ColocationTermDictionary();
+
+    @Test
+    void levenshteinDistance() {
+        assertThat(ColocationTermDictionary.distance("paris", "paris")).isZero();
+        assertThat(ColocationTermDictionary.distance("pari", "paris")).isEqualTo(1);
+        assertThat(ColocationTermDictionary.distance("bordeau", "bordeaux")).isEqualTo(1);
+        assertThat(ColocationTermDictionary.distance("kitten", "sitting")).isEqualTo(3);
+        assertThat(ColocationTermDictionary.distance("", "lyon")).isEqualTo(4);
+    }
+
+    @Test
+    void correctsEachMisspelledWordWithinItsDistance() {
+        dictionary.rebuild(List.of(
+                document(1L, "Sunny flat", "Marseille", true),
+                document(2L, "Quiet studio", "Bordeaux", true),
+                document(3L, "Loft", "Lyon", true)));
+
+        assertThat(dictionary.correct("studoi bordeux")).isEqualTo("studio bordeaux");
+        assertThat(dictionary.correct("Marsielle")).isEqualTo("marseille");
+        // Mot connu ou trop court : inchangé ; rien à corriger : null
+        assertThat(dictionary.correct("loft lyn")).isEqualTo("loft lyon");
+        assertThat(dictionary.correct("sunny")).isNull();
+        assertThat(dictionary.correct("xyzxyz")).isNull();
+        // Au plus une erreur pour les mots de 4 lettres
+        assertThat(dictionary.correct("lxxn")).isNull();
+    }
+
+    @Test
+    void tiesGoToTheWordOfMostColocations() {
+        dictionary.rebuild(List.of(
+                document(1L, "Rent", "Nice", true),
+                document(2L, "Rest", "Nice", true),
+                document(3L, "Rest", "Nice", true)));
+
+        assertThat(dictionary.correct("reqt")).isEqualTo("rest");
+    }
+
+    @Test
+    void privateColocationsAreNeverSuggested() {
+        dictionary.rebuild(List.of(document(1L, "Penthouse", "Paris", false)));
+        assertThat(dictionary.correct("penthose")).isNull();
+
+        dictionary.colocationSaved(document(1L, "Penthouse", "Paris", true));
+        assertThat(dictionary.correct("penthose")).isEqualTo("penthouse");
+
+        // Dépublication : les mots sortent du dictionnaire
+        dictionary.colocationSaved(document(1L, "Penthouse", "Paris", false));
+        assertThat(dictionary.correct("penthose")).isNull();
+    }
+
+    @Test
+    void deletedWordsAreSkippedAndCompactedPastHalfTheTree() {
+        List<ColocationDocument> documents = new ArrayList<>();
+        for (long id = 0; id < 100; id++) {
+            documents.add(document(id, word(id), "Lille", true));
+        }
+        dictionary.rebuild(documents);
+        int fullTree = dictionary.treeSize();
+
+        dictionary.colocationDeleted(7L);
+        assertThat(dictionary.correct(typo(7))).isNull();
+        assertThat(dictionary.treeSize()).isEqualTo(fullTree);
+
+        // Mot remis avant la compaction : retrouvé dans l'arbre
+        dictionary.colocationSaved(document(7L, word(7), "Lille", true));
+        assertThat(dictionary.correct(typo(7))).isEqualTo(word(7));
+
+        for (long id = 0; id < 60; id++) {
+            dictionary.colocationDeleted(id);
+        }
+        assertThat(dictionary.treeSize()).isLessThan(fullTree);
+        assertThat(dictionary.correct(typo(80))).isEqualTo(word(80));
+        assertThat(dictionary.correct(typo(10))).isNull();
+    }
+
+    // Mots de 8 lettres tirés au hasard : loin les uns des autres, à distance 1 de leur faute de frappe
+    private static String word(long id) {
+        Random random = new Random(id);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < 8; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    private static String typo(long id) {
+        String word = word(id);
+        char last = word.charAt(word.length() - 1);
+        return word.substring(0, word.length() - 1) + (last == 'z' ? 'a' : (char) (last + 1));
+    }
+
+    private static ColocationDocument document(Long id, String name, String city, boolean published) {
+        return new ColocationDocument(id, name, "publisher", null, city, null, null, null, null,
+                List.of(), List.of(), 500.0, 1, Set.of(), null, published, false);
+    }
+}
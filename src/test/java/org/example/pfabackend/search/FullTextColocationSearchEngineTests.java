@@ -0,0 +1,98 @@
+package org.example.pfabackend.search;
+
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.enums.SearchScope;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Startup indexing with {@code colocation.search.engine=fulltext}: the rows without a search_vector are
+ * refreshed in a read-write transaction of their own, outside the read-only load of the colocations.
+ * Needs the PostgreSQL database of application.properties (tsvector); skipped on any other database.
+ */
+@DataJpaTest(properties = {"colocation.search.engine=fulltext", "spring.jpa.hibernate.ddl-auto=update"})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIf("onPostgres")
+@Import({ColocationIndexer.class, ColocationSearchCache.class, FullTextColocationSearchEngine.class})
+class FullTextColocationSearchEngineTests {
+
+    private static final String PUBLISHER = "fulltext-test";
+
+    @Autowired
+    private ColocationIndexer colocationIndexer;
+    @Autowired
+    private ColocationSearchEngine searchEngine;
+    @Autowired
+    private ColocationRepository colocationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    static boolean onPostgres() throws IOException {
+        return PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"))
+                .getProperty("spring.datasource.url", "").startsWith("jdbc:postgresql");
+    }
+
+    @AfterEach
+    void tearDown() {
+        colocationRepository.deleteAllById(ids);
+    }
+
+    @Test
+    void rebuildAllRefreshesMissingSearchVectors() {
+        Long id = colocationRepository.save(colocation("Zanzibar loft")).getId();
+        ids.add(id);
+        jdbcTemplate.update("UPDATE colocation SET search_vector = NULL WHERE id = ?", id);
+
+        colocationIndexer.rebuildAll();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT search_vector IS NOT NULL FROM colocation WHERE id = ?", Boolean.class, id))
+                .isTrue();
+        assertThat(searchEngine.search("zanzibar", SearchScope.PUBLIC, PageRequest.of(0, 10)).getContent()).contains(id);
+    }
+
+    @Test
+    void importChunkRefreshesItsSearchVectorsTogether() {
+        List<Colocation> chunk = colocationRepository.saveAll(List.of(colocation("Kilimanjaro loft"), colocation("Kilimanjaro studio")));
+        chunk.forEach(colocation -> ids.add(colocation.getId()));
+
+        colocationIndexer.saved(chunk);
+
+        assertThat(searchEngine.search("kilimanjaro", SearchScope.PUBLIC, PageRequest.of(0, 10)).getContent())
+                .containsExactlyInAnyOrderElementsOf(ids);
+    }
+
+    private static Colocation colocation(String name) {
+        Colocation colocation = new Colocation();
+        colocation.setName(name);
+        colocation.setIdOfPublisher(PUBLISHER);
+        colocation.setNameOfPublisher("publisher");
+        colocation.setAddress("1 rue de la Paix");
+        colocation.setCity("Paris");
+        colocation.setPostalCode("75002");
+        colocation.setPrice(500.0);
+        colocation.setIsPublished(true);
+        colocation.setIsArchived(false);
+        return colocation;
+    }
+}
@@ -0,0 +1,27 @@
+package org.example.pfabackend.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The non-published colocations stay reserved to admins although every other GET on {@code /api/colocations} is public.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecurityConfigTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void anonymousCallersCannotListNonPublishedColocations() throws Exception {
+        mockMvc.perform(get("/api/colocations/non-published")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/colocations/non-published/feed")).andExpect(status().isUnauthorized());
+    }
+}
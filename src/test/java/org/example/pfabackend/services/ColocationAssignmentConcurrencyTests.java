@@ -0,0 +1,168 @@
+package org.example.pfabackend.services;
+
+import com.cloudinary.Cloudinary;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.mappers.ColocationMapperImpl;
+import org.example.pfabackend.mappers.ReviewMapperImpl;
+import org.example.pfabackend.repositories.ColocationMembershipRepository;
+import org.example.pfabackend.repositories.ColocationRepository;
+import org.example.pfabackend.search.*;
+import org.example.pfabackend.security.JwtConverter;
+import org.example.pfabackend.services.implementations.ColocationMembershipCache;
+import org.example.pfabackend.services.implementations.ColocationServiceImpl;
+import org.example.pfabackend.services.implementations.SavedSearchNotifier;
+import org.example.pfabackend.services.implementations.UserService;
+import org.example.pfabackend.websocket.WebSocketNotifier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent assignments from several owners or admins: the seat is reserved by a conditional UPDATE,
+ * so a colocation never ends up with more members than {@code maxRoommates}, and the counter matches the
+ * membership rows. Runs without the test transaction so that each assignment commits on its own.
+ * Throughput is measured by {@code ColocationAssignmentBenchmark}.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({
+        ColocationServiceImpl.class, ColocationIndexer.class, ColocationSearchCache.class,
+        TrigramColocationSearchEngine.class, ColocationFacetIndex.class, ColocationFilterIndex.class,
+        ColocationSuggestIndex.class, ColocationTermDictionary.class, ColocationRelevanceIndex.class,
+        SavedSearchPercolator.class, ColocationMapperImpl.class, ReviewMapperImpl.class, ColocationMembershipCache.class, SavedSearchNotifier.class
+})
+class ColocationAssignmentConcurrencyTests {
+
+    private static final String PUBLISHER = "publisher-1";
+    private static final int COLOCATIONS = 5;
+    private static final int MAX_ROOMMATES = 4;
+    private static final int ASSIGNMENTS = 400;
+    private static final int THREADS = 16;
+
+    @Autowired
+    private ColocationService colocationService;
+    @Autowired
+    private ColocationRepository colocationRepository;
+    @Autowired
+    private ColocationMembershipRepository membershipRepository;
+
+    @MockitoBean
+    private JwtConverter jwtConverter;
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private Cloudinary cloudinary;
+    @MockitoBean
+    private WebSocketNotifier webSocketNotifier;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < COLOCATIONS; i++) {
+            Colocation colocation = new Colocation();
+            colocation.setName("Colocation " + i);
+            colocation.setIdOfPublisher(PUBLISHER);
+            colocation.setNameOfPublisher("publisher");
+            colocation.setAddress(i + " rue de la Paix");
+            colocation.setCity("Paris");
+            colocation.setPostalCode("75002");
+            colocation.setPrice(400.0 + i);
+            colocation.setMaxRoommates(MAX_ROOMMATES);
+            colocation.setCurrentRoommates(0);
+            ids.add(colocationRepository.save(colocation).getId());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        membershipRepository.deleteAll();
+        colocationRepository.deleteAll();
+    }
+
+    @Test
+    void parallelAssignmentsNeverExceedMaxRoommates() throws Exception {
+        AtomicInteger assigned = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < ASSIGNMENTS; i++) {
+            // Chaque utilisateur est affecté deux fois à la même colocation (double clic)
+            String userId = "user-" + (i / 2);
+            Long id = ids.get((i / 2) % COLOCATIONS);
+            tasks.add(() -> {
+                try {
+                    colocationService.assignUserToColocation(id, userId, PUBLISHER, false);
+                    assigned.incrementAndGet();
+                } catch (IllegalStateException ex) {
+                    full.incrementAndGet();
+                } catch (IllegalArgumentException ex) {
+                    duplicates.incrementAndGet();
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(assigned.get()).isEqualTo(COLOCATIONS * MAX_ROOMMATES);
+        assertThat(assigned.get() + full.get() + duplicates.get()).isEqualTo(ASSIGNMENTS);
+        for (Long id : ids) {
+            Colocation colocation = colocationRepository.findById(id).orElseThrow();
+            List<String> members = membershipRepository.findUserIdsByColocationId(id);
+            assertThat(members).hasSize(MAX_ROOMMATES).doesNotHaveDuplicates();
+            assertThat(colocation.getCurrentRoommates()).isEqualTo(MAX_ROOMMATES);
+        }
+    }
+
+    @Test
+    void staleCountersAreReconciledWithTheMemberships() {
+        Long id = ids.get(0);
+        colocationService.toggleUserAssignment(id, "user-0", PUBLISHER, false);
+        colocationService.toggleUserAssignment(id, "user-1", PUBLISHER, false);
+        Colocation colocation = colocationRepository.findById(id).orElseThrow();
+        colocation.setCurrentRoommates(MAX_ROOMMATES);
+        colocationRepository.save(colocation);
+
+        // Seul le compteur faux est réécrit, une seule fois
+        assertThat(colocationRepository.backfillCurrentRoommates()).isEqualTo(1);
+        assertThat(colocationRepository.findById(id).orElseThrow().getCurrentRoommates()).isEqualTo(2);
+        assertThat(colocationRepository.backfillCurrentRoommates()).isZero();
+    }
+
+    @Test
+    void releasedSeatsCanBeTakenAgain() {
+        Long id = ids.get(0);
+        for (int i = 0; i < MAX_ROOMMATES; i++) {
+            colocationService.toggleUserAssignment(id, "user-" + i, PUBLISHER, false);
+        }
+
+        Colocation updated = colocationService.toggleUserAssignment(id, "user-0", PUBLISHER, false);
+        assertThat(updated.getCurrentRoommates()).isEqualTo(MAX_ROOMMATES - 1);
+
+        colocationService.toggleUserAssignment(id, "user-new", PUBLISHER, false);
+        assertThat(membershipRepository.findUserIdsByColocationId(id))
+                .containsExactly("user-1", "user-2", "user-3", "user-new");
+        assertThat(colocationRepository.findById(id).orElseThrow().getCurrentRoommates()).isEqualTo(MAX_ROOMMATES);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.pfabackend.services;
+
+import jakarta.persistence.EntityManager;
+import org.example.pfabackend.dto.ColocationImportReportDTO;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.entities.ColocationImage;
+import org.example.pfabackend.enums.Amenity;
+import org.example.pfabackend.enums.SearchScope;
+import org.example.pfabackend.repositories.ColocationBatchRepository;
+import org.example.pfabackend.search.*;
+import org.example.pfabackend.services.implementations.ColocationImportServiceImpl;
+import org.example.pfabackend.services.implementations.ColocationMembershipCache;
+import org.example.pfabackend.services.implementations.SavedSearchNotifier;
+import org.example.pfabackend.websocket.WebSocketNotifier;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bulk import: rows are validated one by one, valid ones are written with their collections and indexed.
+ */
+@DataJpaTest
+@ImportAutoConfiguration({JacksonAutoConfiguration.class, ValidationAutoConfiguration.class})
+@Import({
+        ColocationImportServiceImpl.class, ColocationBatchRepository.class, ColocationIndexer.class,
+        ColocationSearchCache.class, TrigramColocationSearchEngine.class, ColocationFacetIndex.class,
+        ColocationFilterIndex.class, ColocationSuggestIndex.class, ColocationTermDictionary.class,
+        ColocationRelevanceIndex.class, SavedSearchPercolator.class, ColocationMembershipCache.class, SavedSearchNotifier.class
+})
+class ColocationImportTests {
+
+    @Autowired
+    private ColocationImportService colocationImportService;
+    @Autowired
+    private ColocationSearchEngine searchEngine;
+    @Autowired
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private WebSocketNotifier webSocketNotifier;
+
+    @Test
+    void importJsonWritesValidRowsWithTheirCollections() throws IOException {
+        String json = """
+                [
+                  {"name": "Sunny flat", "address": "1 rue Neuve", "city": "Lyon", "postalCode": "69001", "price": 450,
+                   "hasWifi": true, "isPublished": true, "rules": ["No smoking"], "tags": ["Quiet", "Central"],
+                   "imageUrls": ["https://img.example/1.jpg", "https://img.example/2.jpg"], "assignedUserIds": ["user-1"]},
+                  {"name": "No price", "address": "2 rue Neuve", "city": "Lyon", "postalCode": "69001"},
+                  {"name": "Studio", "address": "3 rue Neuve", "city": "Paris", "postalCode": "75001", "price": 600}
+                ]
+                """;
+
+        ColocationImportReportDTO report = colocationImportService.importJson(stream(json), "agency-1", "Agency");
+
+        assertThat(report.received()).isEqualTo(3);
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.rejected()).isEqualTo(1);
+        assertThat(report.rows()).extracting(ColocationImportReportDTO.Row::row).containsExactly(1, 2, 3);
+        assertThat(report.rows().get(1).errors()).containsExactly("price: must not be null");
+
+        Colocation imported = entityManager.find(Colocation.class, report.rows().get(0).id());
+        assertThat(imported.getIdOfPublisher()).isEqualTo("agency-1");
+        assertThat(imported.getAmenities()).isEqualTo(Amenity.WIFI.bit());
+        assertThat(imported.getRules()).containsExactly("No smoking");
+        assertThat(imported.getTags()).containsExactlyInAnyOrder("Quiet", "Central");
+        assertThat(imported.getImages()).extracting(ColocationImage::getUrl)
+                .containsExactlyInAnyOrder("https://img.example/1.jpg", "https://img.example/2.jpg");
+        assertThat(imported.getAssignedUserIds()).containsExactly("user-1");
+
+        assertThat(searchEngine.search("sunny", SearchScope.PUBLIC, PageRequest.of(0, 10)).getContent())
+                .containsExactly(imported.getId());
+    }
+
+    @Test
+    void roommateCounterIsDerivedFromTheAssignedUsers() throws IOException {
+        String json = """
+                [
+                  {"name": "Duplex", "address": "7 rue Neuve", "city": "Lyon", "postalCode": "69001", "price": 500,
+                   "maxRoommates": 2, "currentRoommates": 0, "assignedUserIds": ["user-1", "user-2"]},
+                  {"name": "Crowded", "address": "8 rue Neuve", "city": "Lyon", "postalCode": "69001", "price": 500,
+                   "maxRoommates": 1, "assignedUserIds": ["user-1", "user-2"]}
+                ]
+                """;
+
+        ColocationImportReportDTO report = colocationImportService.importJson(stream(json), "agency-1", "Agency");
+
+        // currentRoommates envoyé par le client : ignoré
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(entityManager.find(Colocation.class, report.rows().get(0).id()).getCurrentRoommates()).isEqualTo(2);
+        assertThat(report.rows().get(1).errors()).containsExactly("assignedUserIds: must not exceed maxRoommates (1)");
+    }
+
+    @Test
+    void importCsvReportsUnreadableAndInvalidRows() throws IOException {
+        String csv = """
+                name,address,city,postalCode,price,rules,description
+                Loft,"4, quai du Rhône",Lyon,69002,700,No pets|No parties,"Two lines,
+                with ""quotes""\"
+                Cheap,5 rue Basse,Lyon,69002,abc,,
+                ,6 rue Basse,Lyon,69002,300,,
+                """;
+
+        ColocationImportReportDTO report = colocationImportService.importCsv(stream(csv), "agency-1", "Agency");
+
+        assertThat(report.received()).isEqualTo(3);
+        assertThat(report.imported()).isEqualTo(1);
+        assertThat(report.rows().get(1).errors()).containsExactly("price: not a number 'abc'");
+        assertThat(report.rows().get(2).errors()).containsExactly("name: must not be blank");
+
+        Colocation loft = entityManager.find(Colocation.class, report.rows().get(0).id());
+        assertThat(loft.getAddress()).isEqualTo("4, quai du Rhône");
+        assertThat(loft.getDescription()).isEqualTo("Two lines,\nwith \"quotes\"");
+        assertThat(loft.getRules()).containsExactlyInAnyOrder("No pets", "No parties");
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
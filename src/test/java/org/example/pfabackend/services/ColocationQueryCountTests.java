@@ -0,0 +1,359 @@
+package org.example.pfabackend.services;
+
+import com.cloudinary.Cloudinary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.example.pfabackend.dto.BulkModerationResultDTO;
+import org.example.pfabackend.dto.ColocationDTO;
+import org.example.pfabackend.dto.ColocationSummaryDTO;
+import org.example.pfabackend.entities.Colocation;
+import org.example.pfabackend.entities.ColocationImage;
+import org.example.pfabackend.entities.Review;
+import org.example.pfabackend.entities.SavedSearch;
+import org.example.pfabackend.enums.Amenity;
+import org.example.pfabackend.enums.ColocationField;
+import org.example.pfabackend.mappers.ColocationMapperImpl;
+import org.example.pfabackend.mappers.ReviewMapperImpl;
+import org.example.pfabackend.repositories.ColocationMembershipRepository;
+import org.example.pfabackend.search.*;
+import org.example.pfabackend.security.JwtConverter;
+import org.example.pfabackend.services.implementations.ColocationMembershipCache;
+import org.example.pfabackend.services.implementations.ColocationServiceImpl;
+import org.example.pfabackend.services.implementations.SavedSearchNotifier;
+import org.example.pfabackend.services.implementations.UserService;
+import org.example.pfabackend.websocket.WebSocketNotifier;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The list endpoints must load a page in a constant number of SQL statements, whatever its size
+ * (no lazy loading of images, reviews, rules, tags or assigned users row by row). They return
+ * {@link ColocationSummaryDTO} projections, so the collections are not loaded at all.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({
+        ColocationServiceImpl.class, ColocationIndexer.class, ColocationSearchCache.class,
+        TrigramColocationSearchEngine.class, ColocationFacetIndex.class, ColocationFilterIndex.class,
+        ColocationSuggestIndex.class, ColocationTermDictionary.class, ColocationRelevanceIndex.class,
+        SavedSearchPercolator.class, ColocationMapperImpl.class, ReviewMapperImpl.class, ColocationMembershipCache.class, SavedSearchNotifier.class
+})
+class ColocationQueryCountTests {
+
+    private static final String PUBLISHER = "publisher-1";
+    private static final String ROOMMATE = "roommate-1";
+    private static final int LISTINGS = 12;
+
+    @Autowired
+    private ColocationService colocationService;
+    @Autowired
+    private ColocationIndexer colocationIndexer;
+    @Autowired
+    private ColocationMembershipRepository membershipRepository;
+    @Autowired
+    private ColocationMembershipCache membershipCache;
+    @Autowired
+    private SavedSearchPercolator savedSearchPercolator;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private JwtConverter jwtConverter;
+    @MockitoBean
+    private UserService userService;
+    @MockitoBean
+    private Cloudinary cloudinary;
+    @MockitoBean
+    private WebSocketNotifier webSocketNotifier;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < LISTINGS; i++) {
+            entityManager.persist(colocation(i));
+        }
+        entityManager.flush();
+        colocationIndexer.rebuildAll();
+        membershipCache.invalidate(List.of(PUBLISHER, ROOMMATE));
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void getAllColocationsLoadsAPageInConstantQueries() {
+        long small = countQueries(() -> colocationService.getAllColocations(null, 0, 2, false, null).getContent());
+        long large = countQueries(() -> colocationService.getAllColocations(null, 0, 10, false, null).getContent());
+
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void getAssignedColocationsLoadsAPageInConstantQueries() {
+        long small = countQueries(() -> colocationService.getAssignedColocations(ROOMMATE, 0, 2).getContent());
+        long large = countQueries(() -> colocationService.getAssignedColocations(ROOMMATE, 0, 10).getContent());
+
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void getOwnColocationsLoadsAPageInConstantQueries() {
+        long small = countQueries(() -> colocationService.getOwnColocations(PUBLISHER, null, 0, 2).getContent());
+        long large = countQueries(() -> colocationService.getOwnColocations(PUBLISHER, null, 0, 10).getContent());
+
+        assertThat(large).isEqualTo(small).isLessThanOrEqualTo(4);
+        // Pages stables : plus récentes d'abord, comme les autres listes
+        assertThat(colocationService.getOwnColocations(PUBLISHER, null, 0, 10).getContent())
+                .extracting(ColocationSummaryDTO::id)
+                .isSortedAccordingTo(Comparator.reverseOrder());
+    }
+
+    @Test
+    void feedSlicesSeekOnTheIdWithoutCountOrOffset() {
+        List<Long> ids = colocationService.getAllColocations(null, 0, LISTINGS, false, null).getContent()
+                .stream().map(ColocationSummaryDTO::id).toList();
+        Long deepCursor = ids.get(LISTINGS - 3);
+
+        // Tranche d'ids puis cartes : pas de count(*), même coût en tête et en fin de liste
+        long first = countQueries(() -> colocationService.getPublicFeed(null, 2).content());
+        long deep = countQueries(() -> colocationService.getPublicFeed(deepCursor, 2).content());
+        assertThat(deep).isEqualTo(first).isLessThanOrEqualTo(2);
+
+        // Lignes lues : avec le curseur, la tranche (LIMIT size + 1) lue dans la clé primaire, plus la fin du parcours ;
+        // avec OFFSET, toutes les lignes qui précèdent la page
+        assertThat(scanCount("SELECT c.id FROM colocation c WHERE c.is_published = TRUE AND c.is_archived = FALSE " +
+                "AND c.id < " + deepCursor + " ORDER BY c.id DESC LIMIT 3")).isLessThanOrEqualTo(4);
+        assertThat(scanCount("SELECT c.id FROM colocation c WHERE c.is_published = TRUE AND c.is_archived = FALSE " +
+                "ORDER BY c.id DESC LIMIT 3 OFFSET " + (LISTINGS - 2))).isGreaterThan(LISTINGS - 2);
+    }
+
+    @Test
+    void summariesCarryCoverImageRatingAndAmenities() {
+        ColocationSummaryDTO summary = colocationService.getAllColocations(null, 0, 1, false, null).getContent().get(0);
+
+        assertThat(summary.name()).isEqualTo("Colocation " + (LISTINGS - 1));
+        assertThat(summary.coverImageUrl()).isEqualTo("https://img.example/" + (LISTINGS - 1) + "/1.jpg");
+        assertThat(summary.averageRating()).isEqualTo(3.5);
+        assertThat(summary.reviewCount()).isEqualTo(2);
+        assertThat(summary.amenities()).containsExactly(Amenity.WIFI);
+        assertThat(summary.assignedUsers()).isNull();
+    }
+
+    @Test
+    void exportStreamsTheCatalogueWithBatchedCollections() {
+        List<ColocationDTO> exported = new ArrayList<>();
+        long queries = countQueries(() -> {
+            assertThat(colocationService.exportColocations(exported::add)).isEqualTo(LISTINGS);
+            return exported;
+        });
+
+        // Curseur + une requête par collection (règles, tags, images, avis, colocataires) pour tout le paquet
+        assertThat(queries).isLessThanOrEqualTo(6);
+        assertThat(exported).extracting(ColocationDTO::id).isSorted();
+        assertThat(exported).allSatisfy(colocation -> {
+            assertThat(colocation.imageUrls()).hasSize(2);
+            assertThat(colocation.reviews()).hasSize(2);
+            assertThat(colocation.tags()).containsExactly("Quiet", "Near university");
+        });
+    }
+
+    @Test
+    void sparseFieldsOnlyQueryTheRequestedColumnsAndCollections() {
+        Jwt publisher = Jwt.withTokenValue("token").header("alg", "none").claim("sub", PUBLISHER).build();
+        Long id = colocationService.getAllColocations(null, 0, 1, false, null).getContent().get(0).id();
+        List<Map<String, Object>> result = new ArrayList<>();
+        colocationService.getColocationFields(id, ColocationField.fromParam("id"), publisher);
+
+        long scalars = countQueries(() -> {
+            result.add(colocationService.getColocationFields(id, ColocationField.fromParam("name,price,city,averageRating"), publisher).orElseThrow());
+            return result;
+        });
+        assertThat(scalars).isEqualTo(1);
+        assertThat(result.get(0)).containsOnlyKeys("name", "price", "city", "averageRating")
+                .containsEntry("name", "Colocation " + (LISTINGS - 1))
+                .containsEntry("averageRating", 3.5);
+
+        result.clear();
+        long withCollections = countQueries(() -> {
+            result.add(colocationService.getColocationFields(id, ColocationField.fromParam("id,imageUrls,reviews"), publisher).orElseThrow());
+            return result;
+        });
+        assertThat(withCollections).isEqualTo(3);
+        assertThat(result.get(0)).containsOnlyKeys("id", "imageUrls", "reviews")
+                .containsEntry("id", id)
+                .containsEntry("imageUrls", List.of("https://img.example/" + (LISTINGS - 1) + "/1.jpg", "https://img.example/" + (LISTINGS - 1) + "/2.jpg"));
+        assertThat((List<?>) result.get(0).get("reviews")).hasSize(2);
+    }
+
+    @Test
+    void bulkModerationRunsOneStatementPerTableWhateverTheNumberOfIds() {
+        List<Long> ids = new ArrayList<>(colocationService.getAllColocations(null, 0, LISTINGS, false, null).getContent()
+                .stream().map(ColocationSummaryDTO::id).toList());
+        ids.add(-1L);
+        List<BulkModerationResultDTO> results = new ArrayList<>();
+
+        // États, UPDATE, puis relecture des colocations modifiées avec leurs règles et tags (index)
+        long archive = countQueries(() -> {
+            results.add(colocationService.bulkUpdateIsArchived(ids, true));
+            return results;
+        });
+        assertThat(archive).isLessThanOrEqualTo(5);
+        assertThat(results.get(0)).isEqualTo(new BulkModerationResultDTO(LISTINGS + 1, LISTINGS, List.of(-1L), Set.of(PUBLISHER)));
+        assertThat(entityManager.find(Colocation.class, ids.get(0)).getVersion()).isEqualTo(1L);
+
+        // Déjà archivées : rien à mettre à jour
+        long unchanged = countQueries(() -> {
+            results.add(colocationService.bulkUpdateIsArchived(ids, true));
+            return results;
+        });
+        assertThat(unchanged).isEqualTo(1);
+        assertThat(results.get(1).updated()).isZero();
+        assertThat(results.get(1).publisherIds()).isEmpty();
+
+        // États, colocataires (cache des appartenances), puis un DELETE par table
+        long delete = countQueries(() -> {
+            results.add(colocationService.bulkDeleteColocations(ids));
+            return results;
+        });
+        assertThat(delete).isEqualTo(8);
+        assertThat(results.get(2).updated()).isEqualTo(LISTINGS);
+        assertThat(entityManager.createQuery("SELECT count(r) FROM Review r", Long.class).getSingleResult()).isZero();
+        assertThat(entityManager.find(Colocation.class, ids.get(0))).isNull();
+    }
+
+    @Test
+    void assignmentWritesOneMembershipRow() {
+        Long id = colocationService.getAllColocations(null, 0, 1, false, null).getContent().get(0).id();
+        entityManager.clear();
+        statistics.clear();
+
+        colocationService.toggleUserAssignment(id, "roommate-2", PUBLISHER, false);
+        entityManager.flush();
+
+        // Une ligne insérée, la collection n'est pas réécrite
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionRecreateCount()).isZero();
+        assertThat(membershipRepository.findColocationIdsByUserId("roommate-2")).containsExactly(id);
+
+        assertThat(entityManager.find(Colocation.class, id).getCurrentRoommates()).isEqualTo(2);
+        entityManager.clear();
+
+        // Retrait : un DELETE de la ligne, puis la place est libérée
+        colocationService.toggleUserAssignment(id, "roommate-2", PUBLISHER, false);
+        entityManager.flush();
+        assertThat(membershipRepository.findColocationIdsByUserId("roommate-2")).isEmpty();
+        assertThat(entityManager.find(Colocation.class, id).getCurrentRoommates()).isEqualTo(1);
+    }
+
+    @Test
+    void visibilityChecksAreServedFromTheMembershipCache() {
+        Jwt roommate = Jwt.withTokenValue("token").header("alg", "none").claim("sub", ROOMMATE).build();
+        Jwt stranger = Jwt.withTokenValue("token").header("alg", "none").claim("sub", "stranger").build();
+        Long id = colocationService.getAllColocations(null, 0, 1, false, null).getContent().get(0).id();
+
+        // Premier accès : colocations publiées et partagées chargées une fois, puis seule la version est lue
+        long first = countQueries(() -> List.of(colocationService.getColocationVersion(id, roommate)));
+        long second = countQueries(() -> List.of(colocationService.getColocationVersion(id, roommate)));
+        assertThat(first).isEqualTo(3);
+        assertThat(second).isEqualTo(1);
+
+        assertThat(colocationService.getAssignedColocationIds(ROOMMATE)).hasSize(LISTINGS).isSortedAccordingTo(Comparator.reverseOrder());
+        assertThatThrownBy(() -> colocationService.getColocationVersion(id, stranger)).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void savedSearchesAreNotifiedOnlyWhenAListingGetsPublished() {
+        SavedSearch savedSearch = new SavedSearch();
+        savedSearch.setId(7L);
+        savedSearch.setUserId("searcher");
+        savedSearch.setMaxPrice(1000.0);
+        savedSearchPercolator.register(savedSearch);
+        Long id = colocationService.getAllColocations(null, 0, 1, false, null).getContent().get(0).id();
+
+        // Déjà publiée : pas d'alerte ; puis dépubliée et republiée : une seule
+        colocationService.updateIsPublished(id, true);
+        colocationService.updateIsPublished(id, false);
+        colocationService.updateIsPublished(id, true);
+        colocationService.updateIsPublished(id, true);
+
+        // Ni nom ni mot-clé : libellé par défaut plutôt que "null"
+        verify(webSocketNotifier, times(1)).notifyUser(eq("searcher"), contains("\"Saved search #7\""));
+        savedSearchPercolator.unregister(7L);
+    }
+
+    // Nombre de lignes lues par H2 pour la requête (EXPLAIN ANALYZE)
+    private long scanCount(String sql) {
+        String plan = (String) entityManager.createNativeQuery("EXPLAIN ANALYZE " + sql).getSingleResult();
+        Matcher matcher = Pattern.compile("scanCount: (\\d+)").matcher(plan);
+        assertThat(matcher.find()).as(plan).isTrue();
+        return Long.parseLong(matcher.group(1));
+    }
+
+    private long countQueries(Supplier<List<?>> call) {
+        entityManager.clear();
+        statistics.clear();
+        assertThat(call.get()).isNotEmpty();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static Colocation colocation(int i) {
+        Colocation colocation = new Colocation();
+        colocation.setName("Colocation " + i);
+        colocation.setIdOfPublisher(PUBLISHER);
+        colocation.setNameOfPublisher("publisher");
+        colocation.setAddress(i + " rue de la Paix");
+        colocation.setCity(i % 2 == 0 ? "Paris" : "Lyon");
+        colocation.setPostalCode("75002");
+        colocation.setPrice(400.0 + i);
+        colocation.setIsPublished(true);
+        colocation.setHasWifi(true);
+        colocation.setMaxRoommates(4);
+        colocation.setCurrentRoommates(0);
+        colocation.setRules(new ArrayList<>(List.of("No smoking", "No pets")));
+        colocation.setTags(new ArrayList<>(List.of("Quiet", "Near university")));
+        colocation.assignUser(ROOMMATE);
+
+        List<Review> reviews = new ArrayList<>();
+        for (int r = 1; r <= 2; r++) {
+            Review review = new Review();
+            review.setReviewerId(ROOMMATE);
+            review.setReviewerName("roommate");
+            review.setRating(r + 2);
+            review.setColocation(colocation);
+            reviews.add(review);
+
+            ColocationImage image = new ColocationImage();
+            image.setUrl("https://img.example/" + i + "/" + r + ".jpg");
+            image.setColocation(colocation);
+            colocation.addImage(image);
+        }
+        colocation.setReviews(reviews);
+        return colocation;
+    }
+}
@@ -0,0 +1,135 @@
+package org.example.pfabackend.services;
+
+import org.example.pfabackend.services.implementations.KeycloakTokenManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * The service-account token is requested once and shared, including by concurrent callers, and renewed
+ * in the background before it expires.
+ */
+class KeycloakTokenManagerTests {
+
+    private static final String TOKEN_URL = "http://keycloak.test/realms/test/protocol/openid-connect/token";
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+    // Décompte des demandes de jeton terminées (jeton déjà en mémoire)
+    private final CountDownLatch refreshes = new CountDownLatch(2);
+
+    private MockRestServiceServer keycloak;
+    private KeycloakTokenManager tokenManager;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        keycloak = MockRestServiceServer.bindTo(restTemplate).build();
+        tokenManager = new KeycloakTokenManager(restTemplate, TOKEN_URL, "client", "secret", Duration.ofSeconds(30),
+                clock, task -> new Thread(() -> {
+                    task.run();
+                    refreshes.countDown();
+                }).start());
+    }
+
+    @Test
+    void concurrentCallersShareOneTokenRequest() throws Exception {
+        keycloak.expect(ExpectedCount.once(), requestTo(TOKEN_URL)).andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"access_token\": \"token-1\", \"expires_in\": 300}", MediaType.APPLICATION_JSON));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<String>> tokens = new ArrayList<>();
+        try {
+            for (int i = 0; i < 100; i++) {
+                tokens.add(executor.submit(tokenManager::getAccessToken));
+            }
+            for (Future<String> token : tokens) {
+                assertThat(token.get(5, TimeUnit.SECONDS)).isEqualTo("token-1");
+            }
+        } finally {
+            executor.shutdown();
+        }
+        keycloak.verify();
+    }
+
+    @Test
+    void shortLivedTokenIsRefreshedBeforeItExpires() throws InterruptedException {
+        keycloak.expect(ExpectedCount.once(), requestTo(TOKEN_URL))
+                .andRespond(withSuccess("{\"access_token\": \"token-1\", \"expires_in\": 2}", MediaType.APPLICATION_JSON));
+        keycloak.expect(ExpectedCount.once(), requestTo(TOKEN_URL))
+                .andRespond(withSuccess("{\"access_token\": \"token-2\", \"expires_in\": 300}", MediaType.APPLICATION_JSON));
+
+        assertThat(tokenManager.getAccessToken()).isEqualTo("token-1");
+        clock.advance(Duration.ofMillis(900));
+        assertThat(tokenManager.getAccessToken()).isEqualTo("token-1");
+
+        // Mi-vie dépassée (2 s de vie < refresh-before) : le jeton courant est servi, le suivant demandé en arrière-plan
+        clock.advance(Duration.ofMillis(300));
+        assertThat(tokenManager.getAccessToken()).isEqualTo("token-1");
+        assertThat(refreshes.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(tokenManager.getAccessToken()).isEqualTo("token-2");
+        keycloak.verify();
+    }
+
+    @Test
+    void invalidatedTokenIsRequestedAgain() {
+        keycloak.expect(ExpectedCount.once(), requestTo(TOKEN_URL))
+                .andRespond(withSuccess("{\"access_token\": \"token-1\", \"expires_in\": 300}", MediaType.APPLICATION_JSON));
+        keycloak.expect(ExpectedCount.once(), requestTo(TOKEN_URL))
+                .andRespond(withSuccess("{\"access_token\": \"token-2\", \"expires_in\": 300}", MediaType.APPLICATION_JSON));
+
+        assertThat(tokenManager.getAccessToken()).isEqualTo("token-1");
+        tokenManager.invalidate("stale");
+        assertThat(tokenManager.getAccessToken()).isEqualTo("token-1");
+
+        tokenManager.invalidate("token-1");
+        assertThat(tokenManager.getAccessToken()).isEqualTo("token-2");
+        keycloak.verify();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}